@@ -7,9 +7,16 @@ import controlP5.Button;
 import controlP5.ControlEvent;
 import controlP5.ControlP5;
 import controlP5.ControlTimer;
+import controlP5.Toggle;
+import static de.hfkbremen.echo.app.MotorCommand.BROADCAST;
 import static de.hfkbremen.echo.app.Properties.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Timer;
+import java.util.TimerTask;
 import processing.core.PApplet;
-import processing.xml.XMLElement;
+import processing.core.PGraphics;
+import processing.core.PImage;
 
 
 public class AppMotorInterface
@@ -35,9 +42,12 @@ public class AppMotorInterface
 
     private ControlTimer showDauer;
 
-    private XMLElement performance;
+    /* replaced as a whole by the show watcher, read it once and stay with that model */
+    private volatile ShowModel mShow;
 
-    private AktWerte[] akte;
+    private volatile boolean mShowGeaendert;
+
+    private ShowWatcher mShowWatcher;
 
     private Button stop;
 
@@ -47,10 +57,59 @@ public class AppMotorInterface
 
     private static final String XML_SCENE_DATA = "inbetween.xml";
 
+    private static final String COMPILED_SCENE_DATA = "inbetween.show";
+
+    private static final String RECORD_SHADOW_DATA = "records.properties";
+
+    private RecordShadow mRecordShadow;
+
+    private volatile ShowUpload mUpload;
+
+    /* guards starting an upload, the lock of the applet would hold up the animation thread */
+    private final Object mUploadLock = new Object();
+
+    /* an upload waits while an akt plays or live mode runs, it would overwrite their working values, and
+     * while another upload runs */
+    private volatile boolean mUploadAusstehend;
+
+    private boolean mAlleSaetzeSchreiben;
+
+    /* the satz id loaded by hand, 0 if there is none */
+    private volatile int mGeladenerSatzID;
+
     private Button[] mSatzButtons;
 
     private static final int MAX_NUMBER_OF_SATZ_BUTTONS = 3;
 
+    private SetpointStreamer mSetpoints;
+
+    private Toggle mLiveToggle;
+
+    private CueEngine mCueEngine;
+
+    private MotorStateTable mMotorStates;
+
+    private MotorPoller mMotorPoller;
+
+    private volatile int mGestarteterSatz = -1;
+
+    /* everything that does not change from frame to frame: background, panel frames and fixed labels */
+    private PGraphics mStatischeEbene;
+
+    /* the static layer under the labels of the control window */
+    private PImage mControlKachel;
+
+    private Label mUhrLabel;
+
+    private Label mShowdauerLabel;
+
+    private Label mAktLabel;
+
+    private Label mUploadLabel;
+
+    /* the whole screen is drawn again with the next frame, otherwise only the panels that changed */
+    private volatile boolean mNeuZeichnen = true;
+
     public void setup() {
         Serial.DEBUG = false;
 
@@ -66,13 +125,34 @@ public class AppMotorInterface
         hoeheSingleView = breiteSingleView + breiteSingleView / 3;
 
         if (RUN_WITH_SERIAL) {
-            mSerial = Serial.open("/dev/tty.SLAB_USBtoUART");
+            mSerial = Serial.open(MOTOR_BUS);
+            mSetpoints = new SetpointStreamer(mSerial, NUMBER_OF_LEINWAENDE);
+            mRecordShadow = RecordShadow.load(new File(dataPath(RECORD_SHADOW_DATA)));
+            mMotorStates = new MotorStateTable(NUMBER_OF_LEINWAENDE);
+            mMotorPoller = new MotorPoller(mSerial, mMotorStates);
+            mMotorPoller.start();
+            mCueEngine = new CueEngine(mSerial, mRecordShadow, mMotorStates, new CueEngine.Listener() {
+
+                public void satzGestartet(int pSatz) {
+                    mGestarteterSatz = pSatz;
+                    redraw();
+                }
+            });
         }
 
-        xmlEinlesen();
+        showLaden();
         if (RUN_WITH_SERIAL) {
-            saetzeSchreiben();
+            saetzeSchreiben(false);
         }
+        mShowWatcher = new ShowWatcher(new File(dataPath(XML_SCENE_DATA)),
+                                       new File(dataPath(COMPILED_SCENE_DATA)),
+                                       new ShowWatcher.Listener() {
+
+            public void showChanged(ShowModel pShow) {
+                neueShow(pShow);
+            }
+        });
+        mShowWatcher.start();
 
         controlP5 = new ControlP5(this);
         mSatzButtons = new Button[MAX_NUMBER_OF_SATZ_BUTTONS];
@@ -82,60 +162,165 @@ public class AppMotorInterface
         /* intialize */
         aktuellerAkt = XENAKIS;
         handleTabGUI();
+
+        /* frames are only drawn while something moves, the clock ticks once a second. processing draws a frame
+         * for every mouse and key event by itself while it does not loop */
+        noLoop();
+        final Timer mUhr = new Timer("Uhr", true);
+        mUhr.scheduleAtFixedRate(new TimerTask() {
+
+            public void run() {
+                redraw();
+            }
+        }, 1000 - System.currentTimeMillis() % 1000, 1000);
     }
 
     public void draw() {
-        background(color(77, 77, 77));
+        if (mShowGeaendert) {
+            mShowGeaendert = false;
+            mNeuZeichnen = true;
+            handleTabGUI();
+        }
+        if (mUploadAusstehend && !mCueEngine.isPlaying() && !mSetpoints.isRunning() && !uploadLaeuft()) {
+            saetzeSchreiben(false);
+        }
+        if (mGestarteterSatz >= 0) {
+            satzAnzeigen(mGestarteterSatz);
+            mGestarteterSatz = -1;
+        }
+        if (mStatischeEbene == null || mStatischeEbene.width != width || mStatischeEbene.height != height) {
+            statischeEbeneZeichnen();
+            mNeuZeichnen = true;
+        }
+        /* the captions of the sliders and the live toggle are drawn without background, drawn again and again
+         * on the old frame they would get bold. the manuell tab is always drawn completely */
+        if (mNeuZeichnen || aktuellerAkt == MANUELL) {
+            mNeuZeichnen = false;
+            image(mStatischeEbene, 0, 0);
+            for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+                leinwaende[ i].display();
+            }
+            controlWindow();
+        } else {
+            for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+                if (leinwaende[ i].istGeaendert()) {
+                    image(leinwaende[ i].mKachel, leinwaende[ i].positionX - 1, leinwaende[ i].positionY - 1);
+                    leinwaende[ i].display();
+                }
+            }
+            if (controlLabelsAktualisieren()) {
+                image(mControlKachel, controlWindowX(), controlWindowY());
+                controlWindow();
+            }
+        }
+
+        boolean mBewegung = false;
+        for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+            mBewegung |= leinwaende[ i].bewegtSich();
+        }
+        if (mBewegung) {
+            loop();
+        } else {
+            noLoop();
+        }
+    }
+
+    /* renders the static layer, once at the start and again whenever the window size changes */
+    private void statischeEbeneZeichnen() {
+        mStatischeEbene = createGraphics(width, height, JAVA2D);
+        mStatischeEbene.beginDraw();
+        mStatischeEbene.smooth();
+        mStatischeEbene.ellipseMode(CENTER);
+        mStatischeEbene.background(color(77, 77, 77));
+        for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+            leinwaende[ i].displayStatisch(mStatischeEbene);
+        }
+        controlWindowStatisch(mStatischeEbene);
+        mStatischeEbene.endDraw();
+
+        /* pieces of the layer to draw over a single panel, one pixel wider for the stroke of the frame */
         for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
-            leinwaende[ i].display();
+            leinwaende[ i].mKachel = mStatischeEbene.get(leinwaende[ i].positionX - 1, leinwaende[ i].positionY - 1,
+                                                         breiteSingleView + 3, hoeheSingleView + 3);
         }
-        controlWindow();
+        mControlKachel = mStatischeEbene.get(controlWindowX(), controlWindowY(),
+                                             3 * breiteSingleView + 2 * margin + 1, 5 * margin);
     }
 
     public class Leinwand {
 
         public int steps;
 
-        public boolean simulationsDrehung;
-
         public int positionX;
 
         public int positionY;
 
-        public int akt;
-
+        /* the satz of the show the leinwand was last set to */
         public int satz;
 
         private int mID;
 
         private float mCurrentAngle;
 
+        /* the simulated motion since the last start and millis() at the start */
+        private MotionProfile mBewegung;
+
+        private int mBewegungStart;
+
+        /* System.nanoTime() at the start, a status polled before it does not tell whether the motor moves */
+        private long mGestartetUm;
+
+        /* what the panel showed when it was drawn last and the static layer under it */
+        private int mGezeichneteSteps;
+
+        private float mGezeichneterWinkel;
+
+        private PImage mKachel;
+
+        private final Label mZielLabel;
+
+        private final Label mWinkelLabel;
+
         public Leinwand(int X, int Y, int i) {
             steps = 0;
             mCurrentAngle = 0;
             positionX = X;
             positionY = Y;
-            simulationsDrehung = false;
             mID = i;
-            akt = 0;
             satz = 0;
+            /* change with every frame while the leinwand turns or its slider is dragged in live mode */
+            mZielLabel = new Label(color(255), false);
+            mWinkelLabel = new Label(color(0, 105, 140), false);
+        }
+
+        /* the frame, the dial and the name of the panel */
+        public void displayStatisch(PGraphics g) {
+            g.pushMatrix();
+            g.translate(positionX, positionY);
+            g.fill(255);
+            g.text("Motor " + (mID + 1), margin / 2, margin + margin / 2);
+            g.strokeWeight(1);
+            g.stroke(50);
+            g.noFill();
+            g.rect(0, 0, breiteSingleView, hoeheSingleView);
+            g.strokeWeight(1);
+            g.stroke(100);
+            g.ellipse(breiteSingleView / 2, hoeheSingleView / 2 + hoeheSingleView / 8, breiteSingleView - margin, breiteSingleView - margin);
+            g.popMatrix();
         }
 
         public void display() {
             pushMatrix();
             translate(positionX, positionY);
-            fill(255);
-            text("Motor " + (mID + 1), margin / 2, margin + margin / 2);
-            text("Angle: " + (steps * 0.9f) + "°", margin / 2, (margin + margin / 2) * 2);
-            fill(0, 105, 140);
-            text(actualAngle() + "°", margin / 2, (margin + margin / 2) * 3);
-            strokeWeight(1);
-            stroke(50);
-            noFill();
-            rect(0, 0, breiteSingleView, hoeheSingleView);
-            strokeWeight(1);
-            stroke(100);
-            ellipse(breiteSingleView / 2, hoeheSingleView / 2 + hoeheSingleView / 8, breiteSingleView - margin, breiteSingleView - margin);
+            if (mZielLabel.neuerWert(steps)) {
+                mZielLabel.setText("Angle: " + (steps * 0.9f) + "°");
+            }
+            mZielLabel.draw(margin / 2, (margin + margin / 2) * 2);
+            final float mAngle = actualAngle();
+            if (mWinkelLabel.neuerWert(Float.floatToIntBits(mAngle))) {
+                mWinkelLabel.setText(mAngle + "°");
+            }
+            mWinkelLabel.draw(margin / 2, (margin + margin / 2) * 3);
             pushMatrix();
             translate(breiteSingleView / 2, hoeheSingleView / 2 + hoeheSingleView / 8);
             pushMatrix();
@@ -148,8 +333,7 @@ public class AppMotorInterface
             }
             strokeWeight(2);
             stroke(0, 105, 140);
-            actualAngle();
-            rotate(radians(actualAngle()));
+            rotate(radians(mAngle));
             triangle(-breiteSingleView / 3, 0,
                      -(breiteSingleView / 3 - margin / 3), margin / 3,
                      -(breiteSingleView / 3 - margin / 3), -margin / 3);
@@ -165,61 +349,228 @@ public class AppMotorInterface
             popMatrix();
             ellipse(breiteSingleView / 2, hoeheSingleView / 2 + hoeheSingleView / 8, margin / 2, margin / 2);
             popMatrix();
+            mGezeichneteSteps = steps;
+            mGezeichneterWinkel = mCurrentAngle;
+        }
+
+        /**
+         * true if the panel would look different from when it was drawn last.
+         */
+        public boolean istGeaendert() {
+            return steps != mGezeichneteSteps || actualAngle() != mGezeichneterWinkel;
+        }
+
+        /**
+         * true while the motor reports that it moves or, without reports, while the simulation moves. until a
+         * status from after the start arrived the panel moves as long as the simulation does.
+         */
+        public boolean bewegtSich() {
+            final boolean mSimuliert = mBewegung != null
+                                       && mBewegung.isMoving((millis() - mBewegungStart) * 1000000L);
+            if (mMotorStates != null && mMotorStates.isFresh(mID + 1)) {
+                return !mMotorStates.isReadySince(mID + 1, mGestartetUm)
+                       && (mSimuliert || !mMotorStates.isReady(mID + 1));
+            }
+            return mSimuliert;
         }
 
         public float actualAngle() {
-            float winkelProFrame = (akte[akt].saetze[satz].leinwaende[mID].speed / frameRate) * 0.9f;
-            float differenz = (steps * 0.9f - mCurrentAngle);
-            float angle = mCurrentAngle;
-            if (mCurrentAngle < steps * 0.9 && simulationsDrehung) {
-                if (abs(differenz) < winkelProFrame) {
-                    simulationsDrehung = false;
-                    mCurrentAngle = steps * 0.9f;
-                } else {
-                    angle = angle + winkelProFrame;
-                }
-            } else if (mCurrentAngle > steps * 0.9 && simulationsDrehung) {
-                if (abs(differenz) < winkelProFrame) {
-                    simulationsDrehung = false;
-                    mCurrentAngle = steps * 0.9f;
-                } else {
-                    angle = angle - winkelProFrame;
-                }
+            if (mMotorStates != null && mMotorStates.isFresh(mID + 1)) {
+                /* the position the motor reported, the motion is only simulated while there is none */
+                mCurrentAngle = mMotorStates.position(mID + 1) * 0.9f;
+            } else {
+                mCurrentAngle = simulatedPosition() * 0.9f;
+            }
+            return mCurrentAngle;
+        }
+
+        /**
+         * simulates a start of the motor from where the leinwand is now to steps. the start runs the loaded satz
+         * or, with pAbsolut, a single absolute move like the set-points of the live mode.
+         */
+        public void bewegen(boolean pAbsolut) {
+            final ShowModel mCurrentShow = mShow;
+            if (satz >= mCurrentShow.numberOfSaetze()) {
+                /* the satz is gone since the show was reloaded */
+                satz = 0;
+            }
+            final int mPosition = simulatedPosition();
+            if (pAbsolut) {
+                mBewegung = MotionProfile.start(MotionProfile.ABSOLUTE, mPosition, steps, 0,
+                                                mCurrentShow.speed(satz, mID), mCurrentShow.startrampe(satz),
+                                                mCurrentShow.bremsrampe(satz), 1, 0, 0);
+            } else {
+                mBewegung = MotionProfile.satz(mCurrentShow, satz, mID, mPosition, steps);
+            }
+            mBewegungStart = millis();
+            mGestartetUm = System.nanoTime();
+            loop();
+        }
+
+        private int simulatedPosition() {
+            if (mBewegung == null) {
+                return 0;
+            }
+            return mBewegung.position((millis() - mBewegungStart) * 1000000L);
+        }
+    }
+
+    /**
+     * a label whose text is only made again when the value it shows changed. a label whose text stays for a
+     * while, like the akt, is rendered into an image once per text and drawing it is a single blit. a label
+     * that changes every second or faster is drawn with text(), an image per text would only be thrown away
+     * again.
+     */
+    public class Label {
+
+        private final int mFarbe;
+
+        private final boolean mAlsBild;
+
+        private long mWert = Long.MIN_VALUE;
+
+        private Object mA;
+
+        private Object mB;
+
+        /* null until the first text was set */
+        private String mText;
+
+        private PGraphics mBild;
+
+        public Label(int pFarbe, boolean pAlsBild) {
+            mFarbe = pFarbe;
+            mAlsBild = pAlsBild;
+        }
+
+        /**
+         * remembers the value, true if it differs from the one before and the label needs a new text.
+         */
+        public boolean neuerWert(long pWert) {
+            if (pWert == mWert) {
+                return false;
+            }
+            mWert = pWert;
+            return true;
+        }
+
+        public boolean neuerWert(Object pA, Object pB) {
+            if (mText != null && gleich(pA, mA) && gleich(pB, mB)) {
+                return false;
+            }
+            mA = pA;
+            mB = pB;
+            return true;
+        }
+
+        public void setText(String pText) {
+            mText = pText;
+            mBild = null;
+        }
+
+        /**
+         * draws the text like text(String, float, float) with y at the baseline.
+         */
+        public void draw(float x, float y) {
+            if (!mAlsBild) {
+                fill(mFarbe);
+                text(mText, x, y);
+                return;
             }
-            mCurrentAngle = angle;
-            return angle;
+            if (mBild == null) {
+                mBild = createGraphics((int)textWidth(mText) + 3, (int)(textAscent() + textDescent()) + 3, JAVA2D);
+                mBild.beginDraw();
+                mBild.smooth();
+                mBild.fill(mFarbe);
+                mBild.text(mText, 1, 1 + textAscent());
+                mBild.endDraw();
+            }
+            image(mBild, x - 1, y - 1 - textAscent());
+        }
+
+        private boolean gleich(Object pA, Object pB) {
+            return pA == null ? pB == null : pA.equals(pB);
         }
     }
 
     private void controlWindow() {
         pushMatrix();
-        translate(leinwaende[ LETZTE_LEINWAND].positionX + breiteSingleView + margin,
-                  leinwaende[ LETZTE_LEINWAND].positionY);
-        stroke(50);
-        strokeWeight(1);
-        noFill();
-        rect(0,
-             0,
-             3 * breiteSingleView + 2 * margin,
-             2 * hoeheSingleView + 5 * margin);
-        stroke(100);
-        rect(margin,
-             5 * margin,
-             (3 * breiteSingleView) / 2 - margin / 2,
-             breiteSingleView);
-        rect((3 * breiteSingleView) / 2 + margin + margin / 2,
-             5 * margin,
-             (3 * breiteSingleView) / 2 - margin / 2,
-             breiteSingleView);
-        fill(255);
-        text("Uhrzeit: " + nf(hour(), 2) + " : " + nf(minute(), 2) + " : " + nf(second(), 2), margin, margin * 2);
-        text("Showdauer: " + showDauer.toString(), margin, margin * 4);
-        text("Akt: " + aktName + " " + satzName, (3 * breiteSingleView) / 2 + margin + margin / 2, margin * 2);
-        text("Startposition", margin, margin * 7 + breiteSingleView);
-        text("Endposition", (3 * breiteSingleView) / 2 + margin + margin / 2, margin * 7 + breiteSingleView);
+        translate(controlWindowX(), controlWindowY());
+        controlLabelsAktualisieren();
+        mUhrLabel.draw(margin, margin * 2);
+        mShowdauerLabel.draw(margin, margin * 4);
+        mAktLabel.draw((3 * breiteSingleView) / 2 + margin + margin / 2, margin * 2);
+        mUploadLabel.draw((3 * breiteSingleView) / 2 + margin + margin / 2, margin * 4);
         popMatrix();
     }
 
+    /* new texts for the labels of the control window whose values changed, true if there were any */
+    private boolean controlLabelsAktualisieren() {
+        if (mUhrLabel == null) {
+            /* clock and timer change every second */
+            mUhrLabel = new Label(color(255), false);
+            mShowdauerLabel = new Label(color(255), false);
+            mAktLabel = new Label(color(255), true);
+            mUploadLabel = new Label(color(255), false);
+        }
+        boolean mGeaendert = false;
+        if (mUhrLabel.neuerWert(System.currentTimeMillis() / 1000)) {
+            mUhrLabel.setText("Uhrzeit: " + nf(hour(), 2) + " : " + nf(minute(), 2) + " : " + nf(second(), 2));
+            mGeaendert = true;
+        }
+        /* the timer shows whole seconds */
+        if (mShowdauerLabel.neuerWert(showDauer.time() / 1000)) {
+            mShowdauerLabel.setText("Showdauer: " + showDauer.toString());
+            mGeaendert = true;
+        }
+        if (mAktLabel.neuerWert(aktName, satzName)) {
+            mAktLabel.setText("Akt: " + aktName + " " + satzName);
+            mGeaendert = true;
+        }
+        /* the clock draws a frame every second, a finished upload shows up with it */
+        final int mUploadZustand = mUploadAusstehend ? 2 : uploadLaeuft() ? 1 : 0;
+        if (mUploadLabel.neuerWert(mUploadZustand)) {
+            mUploadLabel.setText(mUploadZustand == 2 ? "Saetze werden danach geschrieben"
+                                 : mUploadZustand == 1 ? "Saetze werden geschrieben" : "");
+            mGeaendert = true;
+        }
+        return mGeaendert;
+    }
+
+    private int controlWindowX() {
+        return leinwaende[ LETZTE_LEINWAND].positionX + breiteSingleView + margin;
+    }
+
+    private int controlWindowY() {
+        return leinwaende[ LETZTE_LEINWAND].positionY;
+    }
+
+    /* the boxes and fixed labels of the control window */
+    private void controlWindowStatisch(PGraphics g) {
+        g.pushMatrix();
+        g.translate(controlWindowX(), controlWindowY());
+        g.stroke(50);
+        g.strokeWeight(1);
+        g.noFill();
+        g.rect(0,
+               0,
+               3 * breiteSingleView + 2 * margin,
+               2 * hoeheSingleView + 5 * margin);
+        g.stroke(100);
+        g.rect(margin,
+               5 * margin,
+               (3 * breiteSingleView) / 2 - margin / 2,
+               breiteSingleView);
+        g.rect((3 * breiteSingleView) / 2 + margin + margin / 2,
+               5 * margin,
+               (3 * breiteSingleView) / 2 - margin / 2,
+               breiteSingleView);
+        g.fill(255);
+        g.text("Startposition", margin, margin * 7 + breiteSingleView);
+        g.text("Endposition", (3 * breiteSingleView) / 2 + margin + margin / 2, margin * 7 + breiteSingleView);
+        g.popMatrix();
+    }
+
     private void leinwandUndSliderInit() {
         leinwaende = new Leinwand[NUMBER_OF_LEINWAENDE];
         for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
@@ -291,6 +642,30 @@ public class AppMotorInterface
                             margin * 2).setId(SAETZE_SCHREIBEN_BUTTON);
         controlP5.controller("Saetze Schreiben").moveTo("global");
 
+        controlP5.addButton("Alle Saetze Schreiben", 0,
+                            leinwaende[LETZTE_LEINWAND].positionX + breiteSingleView + 2 * margin,
+                            leinwaende[LETZTE_LEINWAND].positionY + hoeheSingleView + 12 * margin,
+                            (3 * breiteSingleView) / 2 - margin / 2,
+                            margin * 2).setId(ALLE_SAETZE_SCHREIBEN_BUTTON);
+        controlP5.controller("Alle Saetze Schreiben").moveTo("global");
+
+        /* alle saetze des akts nacheinander abspielen */
+        controlP5.addButton("Akt Abspielen", 0,
+                            leinwaende[LETZTE_LEINWAND].positionX + breiteSingleView + 2 * margin,
+                            leinwaende[LETZTE_LEINWAND].positionY + hoeheSingleView + 15 * margin,
+                            (3 * breiteSingleView) / 2 - margin / 2,
+                            margin * 2).setId(AKT_ABSPIELEN_BUTTON);
+        controlP5.controller("Akt Abspielen").moveTo("global");
+
+        /* slider werte live an die motoren schicken */
+        mLiveToggle = controlP5.addToggle("Live", false,
+                                          leinwaende[LETZTE_LEINWAND].positionX + breiteSingleView + 3 * margin + (3 * breiteSingleView) / 2 - margin / 2,
+                                          leinwaende[LETZTE_LEINWAND].positionY + hoeheSingleView + 3 * margin,
+                                          margin * 2,
+                                          margin * 2);
+        mLiveToggle.setId(LIVE_TOGGLE);
+        mLiveToggle.moveTo(TAB_NAME_MANUELL);
+
         /* tab */
         controlP5.tab("default").activateEvent(true);
         controlP5.tab("default").setLabel("Xenakis");
@@ -316,18 +691,25 @@ public class AppMotorInterface
     }
 
     private void ladeSatz(final int pAkt, final int pSatz) {
-        if (pAkt >= 0 && pAkt < akte.length) {
-            if (pSatz >= 0 && pSatz < akte[pAkt].saetze.length) {
-                satzAufMotorAufrufen(pAkt, pSatz);
-                leinwandSliderSetzen(pAkt, pSatz);
-                satzName = akte[pAkt].saetze[pSatz].name;
+        final ShowModel mCurrentShow = mShow;
+        if (pAkt >= 0 && pAkt < mCurrentShow.numberOfAkte()) {
+            if (pSatz >= 0 && pSatz < mCurrentShow.numberOfSaetze(pAkt)) {
+                final int mSatz = mCurrentShow.satz(pAkt, pSatz);
+                satzAufMotorAufrufen(mCurrentShow, mSatz);
+                leinwandSliderSetzen(mCurrentShow, mSatz);
+                satzName = mCurrentShow.satzName(mSatz);
             }
         }
     }
 
     public void controlEvent(ControlEvent theEvent) {
+        /* controllers may have been hidden or shown */
+        mNeuZeichnen = true;
+        redraw();
         if (theEvent.isController() && theEvent.controller().id() == SAETZE_SCHREIBEN_BUTTON) {
-            saetzeSchreiben();
+            saetzeSchreiben(false);
+        } else if (theEvent.isController() && theEvent.controller().id() == ALLE_SAETZE_SCHREIBEN_BUTTON) {
+            saetzeSchreiben(true);
         } else if (theEvent.isController() && theEvent.controller().id() > LAST_TAB_ID) {
             switch (theEvent.controller().id()) {
                 case (START_BUTTON):
@@ -335,9 +717,28 @@ public class AppMotorInterface
                     break;
                 case (STOP_BUTTON):
                     if (RUN_WITH_SERIAL) {
-                        mSerial.write("#*S\r");
+                        /* the 'S' goes out first, the generation it changes keeps the cue engine and the
+                         * streamer from queuing anything after it while they are stopped */
+                        mSerial.writeUrgent(MotorCommand.send(BROADCAST, 'S'));
+                        /* the awt event of the click, controlP5 gets it only with the next frame */
+                        final long mGedrueckt = mouseEvent != null ? mouseEvent.getWhen() : System.currentTimeMillis();
+                        final long mLatenz = System.currentTimeMillis() - mGedrueckt;
+                        mCueEngine.stop();
+                        /* the motors get their positioning mode back once they stopped */
+                        mSetpoints.stop();
+                        mLiveToggle.setValue(0);
+                        if (DEBUG) {
+                            println("Notfall Stop nach " + mLatenz + "ms seit dem Klick, davon "
+                                    + mSerial.lastUrgentLatencyMillis() + "ms im Senden");
+                        }
                     }
                     break;
+                case (AKT_ABSPIELEN_BUTTON):
+                    aktAbspielen();
+                    break;
+                case (LIVE_TOGGLE):
+                    live(theEvent.controller().value() > 0);
+                    break;
                 default:
                     ladeSatz(aktuellerAkt, theEvent.controller().id() - LADEN_SATZ_1);
             }
@@ -367,7 +768,49 @@ public class AppMotorInterface
             }
             handleTabGUI();
         } else if (theEvent.isController()) {
-            leinwaende[theEvent.controller().id()].steps = (int)theEvent.controller().value();
+            final int mLeinwand = theEvent.controller().id();
+            leinwaende[mLeinwand].steps = (int)theEvent.controller().value();
+            if (RUN_WITH_SERIAL && mSetpoints.isRunning()) {
+                mSetpoints.set(mLeinwand + 1, leinwaende[mLeinwand].steps);
+                leinwaende[mLeinwand].bewegen(true);
+            }
+        }
+    }
+
+    private void aktAbspielen() {
+        final ShowModel mCurrentShow = mShow;
+        if (!RUN_WITH_SERIAL || aktuellerAkt == MANUELL || aktuellerAkt >= mCurrentShow.numberOfAkte()) {
+            return;
+        }
+        /* the cue engine loads its own saetze */
+        mGeladenerSatzID = 0;
+        mCueEngine.play(mCurrentShow, aktuellerAkt);
+    }
+
+    /* shows a satz the cue engine started like a satz loaded and started by hand */
+    private void satzAnzeigen(int pSatz) {
+        final ShowModel mCurrentShow = mShow;
+        if (pSatz >= mCurrentShow.numberOfSaetze()) {
+            return;
+        }
+        leinwandSliderSetzen(mCurrentShow, pSatz);
+        satzName = mCurrentShow.satzName(pSatz);
+        for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+            leinwaende[i].bewegen(false);
+        }
+    }
+
+    private void live(boolean pLive) {
+        if (!RUN_WITH_SERIAL) {
+            return;
+        }
+        if (pLive) {
+            for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
+                mSetpoints.set(i + 1, leinwaende[i].steps);
+            }
+            mSetpoints.start();
+        } else {
+            mSetpoints.stop();
         }
     }
 
@@ -382,14 +825,22 @@ public class AppMotorInterface
             return;
         }
 
+        /* live only runs in the manuell tab */
+        if (mLiveToggle.value() > 0) {
+            mLiveToggle.setValue(0);
+        }
+
+        final ShowModel mCurrentShow = mShow;
+        final boolean mAktVorhanden = aktuellerAkt < mCurrentShow.numberOfAkte();
+
         /* update control window */
-        aktName = akte[aktuellerAkt].aktname;
+        aktName = mAktVorhanden ? mCurrentShow.aktName(aktuellerAkt) : "";
         // todo restore satzName when switching back to current akt
         satzName = "";
 
         /* handle satz button visibility */
         for (int i = 0; i < MAX_NUMBER_OF_SATZ_BUTTONS; i++) {
-            if (i < akte[aktuellerAkt].saetze.length) {
+            if (mAktVorhanden && i < mCurrentShow.numberOfSaetze(aktuellerAkt)) {
                 mSatzButtons[i].show();
             } else {
                 mSatzButtons[i].hide();
@@ -397,167 +848,144 @@ public class AppMotorInterface
         }
     }
 
-    private void saetzeSchreiben() {
+    private void saetzeSchreiben(boolean pAlle) {
         if (!RUN_WITH_SERIAL) {
             return;
         }
+        synchronized (mUploadLock) {
+            uploadStarten(pAlle);
+        }
+    }
 
-        for (int i = 0; i < akte.length; i++) {
-            for (int j = 0; j < akte[i].saetze.length; j++) {
-                for (int x = 0; x < akte[i].saetze[j].leinwaende.length; x++) {
-                    final int mID = x + 1;
-                    mSerial.write("#" + mID + "p" + akte[i].saetze[j].drehmodus + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "t" + akte[i].saetze[j].richtungswechsel + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "W" + akte[i].saetze[j].wiederholungen + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "b" + akte[i].saetze[j].startrampe + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "B" + akte[i].saetze[j].bremsrampe + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "P" + akte[i].saetze[j].pause + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "o" + akte[i].saetze[j].leinwaende[x].speed + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "s" + akte[i].saetze[j].leinwaende[x].position + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + "d" + akte[i].saetze[j].leinwaende[x].drehrichtung + "\r");
-                    delay(DELAY_BETWEEN_SERIAL_WRITES);
-                    mSerial.write("#" + mID + ">" + akte[i].saetze[j].satzID + "\r");
+    /* a request that comes while an akt plays, live mode runs or an upload runs is kept and started by draw()
+     * once they ended, the control window shows it */
+    private void uploadStarten(boolean pAlle) {
+        mAlleSaetzeSchreiben |= pAlle;
+        if (mCueEngine.isPlaying() || mSetpoints.isRunning() || uploadLaeuft()) {
+            mUploadAusstehend = true;
+            redraw();
+            return;
+        }
+        mUploadAusstehend = false;
+        if (mAlleSaetzeSchreiben) {
+            mRecordShadow.clear();
+            mAlleSaetzeSchreiben = false;
+        }
+
+        final ShowUpload mShowUpload = new ShowUpload(mSerial, mRecordShadow);
+        mShowUpload.addShow(mShow);
+        mShowUpload.setListener(new ShowUpload.Listener() {
+
+            public void uploadDone() {
+                /* the upload loaded other records, the satz loaded by hand would be started with their values */
+                final int mSatzID = mGeladenerSatzID;
+                if (mSatzID > 0) {
+                    mSerial.write(MotorCommand.set(BROADCAST, 'y', mSatzID));
                 }
             }
+        });
+        mShowUpload.start();
+        mUpload = mShowUpload;
+        redraw();
+    }
+
+    private boolean uploadLaeuft() {
+        final ShowUpload mRunning = mUpload;
+        return mRunning != null && mRunning.isRunning();
+    }
+
+    /**
+     * loads the compiled show. the xml is compiled again when it is newer or the compiled show can not be
+     * read, e.g. because it was written by an older version. a show that does not compile is not used and the
+     * last compiled show is kept.
+     */
+    private void showLaden() {
+        final File mXML = new File(dataPath(XML_SCENE_DATA));
+        final File mCompiled = new File(dataPath(COMPILED_SCENE_DATA));
+        ShowFile mShowFile = null;
+        if (mCompiled.exists() && mCompiled.lastModified() >= mXML.lastModified()) {
+            mShowFile = compiledShowLaden(mCompiled);
+        }
+        if (mShowFile == null) {
+            try {
+                mShowFile = ShowCompiler.compile(mXML);
+                mShowFile.write(mCompiled);
+            } catch (ShowFormatException e) {
+                println("### " + e.getMessage());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (mShowFile == null && mCompiled.exists()) {
+            mShowFile = compiledShowLaden(mCompiled);
         }
+        if (mShowFile == null) {
+            println("### no show to play");
+            exit();
+            return;
+        }
+        mShow = new ShowModel(mShowFile);
     }
 
-    private void xmlEinlesen() {
-        performance = new XMLElement(this, XML_SCENE_DATA);
-        int aktnum = performance.getChildCount();
-        akte = new AktWerte[aktnum];
-        for (int i = 0; i < aktnum; i++) {
-            XMLElement aktliste = performance.getChild(i);
-            int satznum = aktliste.getChildCount();
-            akte[i] = new AktWerte(satznum);
-            akte[i].aktname = aktliste.getString("name");
-            for (int j = 0; j < satznum; j++) {
-                XMLElement satzliste = aktliste.getChild(j);
-                int leinwandnum = satzliste.getChildCount();
-                akte[i].saetze[j] = new SatzWerte(leinwandnum);
-                akte[i].saetze[j].satzID = satzliste.getInt("satzID_y");
-                akte[i].saetze[j].drehmodus = satzliste.getInt("drehmodus_p");
-                akte[i].saetze[j].richtungswechsel = satzliste.getInt("richtungswechsel_t");
-                akte[i].saetze[j].wiederholungen = satzliste.getInt("wiederholungen_W");
-                akte[i].saetze[j].startrampe = satzliste.getInt("startrampe_b");
-                akte[i].saetze[j].bremsrampe = satzliste.getInt("bremsrampe_B");
-                akte[i].saetze[j].pause = satzliste.getInt("pause_P");
-                akte[i].saetze[j].name = satzliste.getString("name");
-                for (int x = 0; x < leinwandnum; x++) {
-                    XMLElement leinwandliste = satzliste.getChild(x);
-                    akte[i].saetze[j].leinwaende[x] = new LeinwandWerte();
-                    akte[i].saetze[j].leinwaende[x].speed = leinwandliste.getInt("speed_o");
-                    akte[i].saetze[j].leinwaende[x].position = leinwandliste.getInt("position_s");
-                    akte[i].saetze[j].leinwaende[x].drehrichtung = leinwandliste.getInt("drehrichtung_d");
-                }
+    private ShowFile compiledShowLaden(File pCompiled) {
+        try {
+            return ShowFile.load(pCompiled);
+        } catch (ShowFormatException e) {
+            println("### " + e.getMessage());
+        } catch (IOException e) {
+            println("### could not load show " + pCompiled + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * called by the show watcher on its thread. the new show replaces the running one at once. an upload of
+     * the old show is stopped, the records that changed are written right away or, while an akt plays or live
+     * mode runs, once it ended.
+     */
+    private void neueShow(ShowModel pShow) {
+        mShow = pShow;
+        mShowGeaendert = true;
+        redraw();
+        if (RUN_WITH_SERIAL) {
+            /* stopping joins the upload thread, that happens without a lock. an upload draw() starts meanwhile
+             * already writes the new show */
+            final ShowUpload mRunning = mUpload;
+            if (mRunning != null) {
+                mRunning.stop();
             }
+            saetzeSchreiben(false);
         }
     }
 
-    private void leinwandSliderSetzen(int akt, int satz) {
+    private void leinwandSliderSetzen(ShowModel pShow, int pSatz) {
         for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
-            controlP5.controller("steps" + i).setValue(akte[akt].saetze[satz].leinwaende[i].position);
-            leinwaende[i].akt = akt;
-            leinwaende[i].satz = satz;
+            controlP5.controller("steps" + i).setValue(pShow.position(pSatz, i));
+            leinwaende[i].satz = pSatz;
             if (DEBUG) {
-                println("Winkel Setzen auf:" + akte[akt].saetze[satz].leinwaende[i].position);
+                println("Winkel Setzen auf:" + pShow.position(pSatz, i));
             }
         }
-//        aktName = akte[akt].aktname;
-//        satzName = akte[akt].saetze[satz].name;
+//        satzName = pShow.satzName(pSatz);
     }
 
-    private void satzAufMotorAufrufen(int akt, int satz) {
+    private void satzAufMotorAufrufen(ShowModel pShow, int pSatz) {
+        final int mSatzID = pShow.satzID(pSatz);
         if (RUN_WITH_SERIAL) {
-            mSerial.write("#*y" + akte[akt].saetze[satz].satzID + "\r");
+            mGeladenerSatzID = mSatzID;
+            mSerial.write(MotorCommand.set(BROADCAST, 'y', mSatzID));
         }
         if (DEBUG) {
-            println("lade Satz:" + akte[akt].saetze[satz].satzID);
+            println("lade Satz:" + mSatzID);
         }
     }
 
     private void GO() {
         if (RUN_WITH_SERIAL) {
-            mSerial.write("#*A\r");
+            mSerial.write(MotorCommand.send(BROADCAST, 'A'));
         }
         for (int i = 0; i < NUMBER_OF_LEINWAENDE; i++) {
-            if (leinwaende[i].mCurrentAngle != leinwaende[i].steps * 0.9) {
-                leinwaende[i].simulationsDrehung = true;
-            }
-        }
-    }
-
-    private class AktWerte {
-
-        public SatzWerte[] saetze;
-
-        public String aktname;
-
-        public int satzarraysize;
-
-        AktWerte(int arraysize) {
-            satzarraysize = arraysize;
-            aktname = "name";
-            saetze = new SatzWerte[satzarraysize];
-        }
-    }
-
-    private class SatzWerte {
-
-        public LeinwandWerte[] leinwaende;
-
-        public int leinwandarraysize;
-
-        public int satzID;
-
-        public int drehmodus;
-
-        public int richtungswechsel;
-
-        public int wiederholungen;
-
-        public int startrampe;
-
-        public int bremsrampe;
-
-        public int pause;
-
-        public String name;
-
-        public SatzWerte(int arraysize) {
-            satzID = 0;
-            drehmodus = 2;
-            richtungswechsel = 0;
-            wiederholungen = 1;
-            startrampe = 4000;
-            bremsrampe = 4000;
-            pause = 0;
-            name = "satz";
-            leinwandarraysize = arraysize;
-            leinwaende = new LeinwandWerte[leinwandarraysize];
-        }
-    }
-
-    private class LeinwandWerte {
-
-        public int position;
-
-        public int speed;
-
-        public int drehrichtung;
-
-        public LeinwandWerte() {
-            position = 0;
-            speed = 5;
-            drehrichtung = 0;
+            leinwaende[i].bewegen(false);
         }
     }
 
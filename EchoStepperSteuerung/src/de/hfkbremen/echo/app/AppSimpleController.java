@@ -5,6 +5,7 @@ package de.hfkbremen.echo.app;
 
 import controlP5.ControlEvent;
 import controlP5.ControlP5;
+import static de.hfkbremen.echo.app.MotorCommand.BROADCAST;
 import processing.core.PApplet;
 import processing.core.PVector;
 
@@ -100,19 +101,19 @@ public class AppSimpleController
     public void controlEvent(ControlEvent theEvent) {
         if (theEvent.controller().name().equals(START_ALL)) {
             println(START_ALL);
-            mSerialA.write("#*A\r");
+            mSerialA.write(MotorCommand.send(BROADCAST, 'A'));
         }
         if (theEvent.controller().name().equals(STOP_ALL)) {
             println(STOP_ALL);
-            mSerialA.write("#*S\r");
+            mSerialA.writeUrgent(MotorCommand.send(BROADCAST, 'S'));
         }
         if (theEvent.controller().name().equals(CHANGE_ALL_LEFT)) {
             println(CHANGE_ALL_LEFT);
-            mSerialA.write("#*d0\r");
+            mSerialA.write(MotorCommand.set(BROADCAST, 'd', 0));
         }
         if (theEvent.controller().name().equals(CHANGE_ALL_RIGHT)) {
             println(CHANGE_ALL_RIGHT);
-            mSerialA.write("#*d1\r");
+            mSerialA.write(MotorCommand.set(BROADCAST, 'd', 1));
         }
     }
 
@@ -210,13 +211,13 @@ public class AppSimpleController
             if (mousePressed) {
                 switch (state) {
                     case LEFT:
-                        mSerialA.write("#" + MOTOR_ID + "d0\r");
+                        mSerialA.write(MotorCommand.set(MOTOR_ID, 'd', 0));
                         break;
                     case RIGHT:
-                        mSerialA.write("#" + MOTOR_ID + "d1\r");
+                        mSerialA.write(MotorCommand.set(MOTOR_ID, 'd', 1));
                         break;
                     case INNER:
-                        mSerialA.write("#" + MOTOR_ID + "S\r");
+                        mSerialA.writeUrgent(MotorCommand.send(MOTOR_ID, 'S'));
                         break;
                 }
             }
@@ -239,16 +240,23 @@ public class AppSimpleController
 
         public SerialAdapter() {
             try {
-                mSerial = Serial.open("/dev/tty.SLAB_USBtoUART");
+                mSerial = Serial.open(Properties.MOTOR_BUS);
             } catch (Exception e) {
             }
         }
 
-        public void write(String pMessage) {
+        public void write(MotorCommand pCommand) {
+            println("> " + pCommand);
             if (mSerial != null) {
-                mSerial.write(pMessage);
+                mSerial.write(pCommand);
+            }
+        }
+
+        public void writeUrgent(MotorCommand pCommand) {
+            println("! " + pCommand);
+            if (mSerial != null) {
+                mSerial.writeUrgent(pCommand);
             }
-            println("> " + pMessage);
         }
     }
 
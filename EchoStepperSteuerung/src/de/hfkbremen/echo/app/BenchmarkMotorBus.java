@@ -0,0 +1,109 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.IOException;
+import static de.hfkbremen.echo.app.Properties.*;
+
+
+/**
+ * measures upload throughput, stop latency and reply latency against a {@link SimulatedMotorBus}. runs
+ * without hardware and without a display, e.g. on a build server:
+ * <pre>java de.hfkbremen.echo.app.BenchmarkMotorBus</pre>
+ */
+public class BenchmarkMotorBus {
+
+    private static final int NUMBER_OF_SAETZE = 11;
+
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) throws IOException {
+        for (int mPacing = SERIAL_PACING_FIXED; mPacing <= SERIAL_PACING_ACK; mPacing++) {
+            final SimulatedMotorBus mBus = new SimulatedMotorBus(NUMBER_OF_LEINWAENDE);
+            final Serial mSerial = Serial.open(mBus);
+            mSerial.setPacing(mPacing);
+            System.out.println("### " + (mPacing == SERIAL_PACING_ACK ? "ack" : "fixed") + " pacing");
+
+            final File mShadowFile = File.createTempFile("records", ".properties");
+            mShadowFile.deleteOnExit();
+            final RecordShadow mShadow = new RecordShadow(mShadowFile);
+
+            final long mFull = upload(mSerial, mShadow, 0);
+            System.out.println("full upload         " + mFull + "ms, " + mismatches(mBus, 0) + " wrong record values");
+            final long mDifferential = upload(mSerial, mShadow, 1);
+            System.out.println("differential upload " + mDifferential + "ms, " + mismatches(mBus, 1) + " wrong record values");
+
+            /* reply latency of a single unicast */
+            long mLatency = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                final CommandFuture mFuture = mSerial.write(MotorCommand.send(i % NUMBER_OF_LEINWAENDE + 1, '$'));
+                mFuture.await(SERIAL_REPLY_TIMEOUT);
+                mLatency += mFuture.latencyNanos();
+            }
+            System.out.println("status query        " + (mLatency / QUERIES / 1000) + "us");
+
+            /* stop behind a full upload */
+            final ShowUpload mBulk = createUpload(mSerial, new RecordShadow(mShadowFile), 2);
+            final Thread mThread = mBulk.start();
+            while (mSerial.pending() < 100 && mThread.isAlive()) {
+                Thread.yield();
+            }
+            final int mPending = mSerial.pending();
+            mSerial.writeUrgent(MotorCommand.send(MotorCommand.BROADCAST, 'S'));
+            System.out.println("stop latency        " + mSerial.lastUrgentLatencyMillis() + "ms with " + mPending
+                    + " commands queued");
+            try {
+                mThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mSerial.close();
+        }
+    }
+
+    private static long upload(Serial pSerial, RecordShadow pShadow, int pVariant) {
+        final long mStart = System.currentTimeMillis();
+        createUpload(pSerial, pShadow, pVariant).run();
+        return System.currentTimeMillis() - mStart;
+    }
+
+    private static ShowUpload createUpload(Serial pSerial, RecordShadow pShadow, int pVariant) {
+        final ShowUpload mUpload = new ShowUpload(pSerial, pShadow);
+        for (int j = 0; j < NUMBER_OF_SAETZE; j++) {
+            mUpload.addSatz(j + 1, satzValues(j), leinwandValues(j, pVariant));
+        }
+        return mUpload;
+    }
+
+    /* values like in inbetween.xml, a variant changes the position of a single motor in every satz */
+    private static int[] satzValues(int pSatz) {
+        return new int[] {2, 0, 1, 4000, 4000, 0};
+    }
+
+    private static int[][] leinwandValues(int pSatz, int pVariant) {
+        final int[][] mValues = new int[NUMBER_OF_LEINWAENDE][];
+        for (int x = 0; x < NUMBER_OF_LEINWAENDE; x++) {
+            mValues[x] = new int[] {5, (pSatz * 37 + x * 11) % 200 - 100, 0};
+        }
+        mValues[pSatz % NUMBER_OF_LEINWAENDE][1] += pVariant;
+        return mValues;
+    }
+
+    private static int mismatches(SimulatedMotorBus pBus, int pVariant) {
+        int mMismatches = 0;
+        for (int j = 0; j < NUMBER_OF_SAETZE; j++) {
+            final int[] mSatz = satzValues(j);
+            final int[][] mLeinwand = leinwandValues(j, pVariant);
+            for (int x = 0; x < NUMBER_OF_LEINWAENDE; x++) {
+                final SimulatedMotorBus.SimulatedController mController = pBus.controller(x + 1);
+                for (int i = 0; i < ShowUpload.SATZ_PARAMETER.length; i++) {
+                    mMismatches += mController.recordValue(j + 1, ShowUpload.SATZ_PARAMETER[i]) != mSatz[i] ? 1 : 0;
+                }
+                for (int i = 0; i < ShowUpload.LEINWAND_PARAMETER.length; i++) {
+                    mMismatches += mController.recordValue(j + 1, ShowUpload.LEINWAND_PARAMETER[i]) != mLeinwand[x][i] ? 1 : 0;
+                }
+            }
+        }
+        return mMismatches;
+    }
+}
@@ -0,0 +1,121 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.IOException;
+
+
+/**
+ * compares the per frame cost of reading the show from a {@link ShowModel} with the object graph of akt, satz
+ * and leinwand objects it replaced. every frame reads speed and position of all leinwaende like
+ * Leinwand.actualAngle() and the slider update do, the satz changes every few frames.
+ * <pre>java de.hfkbremen.echo.app.BenchmarkShowModel data/inbetween.xml</pre>
+ */
+public class BenchmarkShowModel {
+
+    private static final int FRAMES = 2000000;
+
+    private static final int ROUNDS = 5;
+
+    /* frames until the next satz is loaded */
+    private static final int FRAMES_PER_SATZ = 64;
+
+    public static void main(String[] args) throws IOException, ShowFormatException {
+        final ShowModel mModel = new ShowModel(ShowCompiler.compile(new File(args.length > 0 ? args[0]
+                                                                                            : "data/inbetween.xml")));
+        final AktGraph[] mGraph = graph(mModel);
+        long mChecksum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            long mStart = System.nanoTime();
+            mChecksum += readGraph(mGraph, mModel.numberOfLeinwaende());
+            final long mGraphTime = System.nanoTime() - mStart;
+            mStart = System.nanoTime();
+            mChecksum -= readModel(mModel);
+            final long mModelTime = System.nanoTime() - mStart;
+            System.out.println("round " + r + ": object graph " + (float)mGraphTime / FRAMES + "ns/frame, show model "
+                    + (float)mModelTime / FRAMES + "ns/frame");
+        }
+        /* both read the same values */
+        System.out.println("checksum difference " + mChecksum);
+    }
+
+    private static long readModel(ShowModel pModel) {
+        long mSum = 0;
+        int mAkt = 0;
+        int mSatz = 0;
+        for (int f = 0; f < FRAMES; f++) {
+            if (f % FRAMES_PER_SATZ == 0) {
+                mSatz++;
+                if (mSatz == pModel.numberOfSaetze(mAkt)) {
+                    mSatz = 0;
+                    mAkt = (mAkt + 1) % pModel.numberOfAkte();
+                }
+            }
+            final int mShowSatz = pModel.satz(mAkt, mSatz);
+            for (int x = 0; x < pModel.numberOfLeinwaende(); x++) {
+                mSum += pModel.speed(mShowSatz, x) + pModel.position(mShowSatz, x);
+            }
+        }
+        return mSum;
+    }
+
+    private static long readGraph(AktGraph[] pGraph, int pNumberOfLeinwaende) {
+        long mSum = 0;
+        int mAkt = 0;
+        int mSatz = 0;
+        for (int f = 0; f < FRAMES; f++) {
+            if (f % FRAMES_PER_SATZ == 0) {
+                mSatz++;
+                if (mSatz == pGraph[mAkt].saetze.length) {
+                    mSatz = 0;
+                    mAkt = (mAkt + 1) % pGraph.length;
+                }
+            }
+            for (int x = 0; x < pNumberOfLeinwaende; x++) {
+                mSum += pGraph[mAkt].saetze[mSatz].leinwaende[x].speed
+                        + pGraph[mAkt].saetze[mSatz].leinwaende[x].position;
+            }
+        }
+        return mSum;
+    }
+
+    /* the layout the app used before, built in the order xmlEinlesen() built it */
+    private static AktGraph[] graph(ShowModel pModel) {
+        final AktGraph[] mAkte = new AktGraph[pModel.numberOfAkte()];
+        for (int i = 0; i < mAkte.length; i++) {
+            mAkte[i] = new AktGraph();
+            mAkte[i].saetze = new SatzGraph[pModel.numberOfSaetze(i)];
+            for (int j = 0; j < mAkte[i].saetze.length; j++) {
+                final int mSatz = pModel.satz(i, j);
+                mAkte[i].saetze[j] = new SatzGraph();
+                mAkte[i].saetze[j].satzID = pModel.satzID(mSatz);
+                mAkte[i].saetze[j].leinwaende = new LeinwandGraph[pModel.numberOfLeinwaende()];
+                for (int x = 0; x < pModel.numberOfLeinwaende(); x++) {
+                    mAkte[i].saetze[j].leinwaende[x] = new LeinwandGraph();
+                    mAkte[i].saetze[j].leinwaende[x].speed = pModel.speed(mSatz, x);
+                    mAkte[i].saetze[j].leinwaende[x].position = pModel.position(mSatz, x);
+                }
+            }
+        }
+        return mAkte;
+    }
+
+    private static class AktGraph {
+
+        SatzGraph[] saetze;
+    }
+
+    private static class SatzGraph {
+
+        int satzID;
+
+        LeinwandGraph[] leinwaende;
+    }
+
+    private static class LeinwandGraph {
+
+        int speed;
+
+        int position;
+    }
+}
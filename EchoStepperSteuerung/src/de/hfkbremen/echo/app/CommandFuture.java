@@ -0,0 +1,221 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * the outcome of a single command sent through {@link Serial}. a command is done once the addressed
+ * controller has answered it, once it was written and no answer is expected (broadcasts), or once it was
+ * discarded or timed out.
+ */
+public class CommandFuture {
+
+    private final int mMotor;
+
+    private final int mMnemonic;
+
+    private final CountDownLatch mDone;
+
+    private volatile String mReply;
+
+    private volatile boolean mAnswered;
+
+    private volatile long mSent;
+
+    private volatile long mDoneTime;
+
+    CommandFuture(int pMotor, int pMnemonic) {
+        mMotor = pMotor;
+        mMnemonic = pMnemonic;
+        mDone = new CountDownLatch(1);
+    }
+
+    /**
+     * the addressed motor or {@link MotorCommand#BROADCAST}.
+     */
+    public int motor() {
+        return mMotor;
+    }
+
+    /**
+     * the command mnemonic. replies are matched to commands by motor and mnemonic.
+     */
+    int mnemonic() {
+        return mMnemonic;
+    }
+
+    /**
+     * motor and mnemonic for logging, e.g. '1/o'.
+     */
+    public String command() {
+        return (mMotor == MotorCommand.BROADCAST ? "*" : String.valueOf(mMotor)) + "/"
+                + MotorCommand.mnemonicName(mMnemonic);
+    }
+
+    public boolean isBroadcast() {
+        return mMotor == MotorCommand.BROADCAST;
+    }
+
+    public boolean expectsReply() {
+        return mMotor > 0 && mMnemonic >= 0;
+    }
+
+    public boolean isDone() {
+        return mDone.getCount() == 0;
+    }
+
+    /**
+     * true if the controller answered, false if the command was discarded, timed out or needs no answer.
+     */
+    public boolean isAnswered() {
+        return mAnswered;
+    }
+
+    /**
+     * true once the command left the output stream.
+     */
+    public boolean isSent() {
+        return mSent != 0;
+    }
+
+    /**
+     * true if the command was given up without being sent: the serial queue was full, an urgent command
+     * discarded it or stopped its producer, the bus was closed or could not be written.
+     */
+    public boolean isDiscarded() {
+        return isDone() && mSent == 0;
+    }
+
+    /**
+     * true if the controller did not recognize the command.
+     */
+    public boolean isError() {
+        return mReply != null && mReply.endsWith("?");
+    }
+
+    public String reply() {
+        return mReply;
+    }
+
+    /**
+     * the numeric value of the reply, e.g. the position of a 'C' query.
+     */
+    public int value() {
+        if (mReply == null) {
+            return 0;
+        }
+        int i = mReply.length();
+        while (i > 0 && Character.isDigit(mReply.charAt(i - 1))) {
+            i--;
+        }
+        if (i == mReply.length()) {
+            return 0;
+        }
+        final int mValue = Integer.parseInt(mReply.substring(i));
+        return i > 0 && mReply.charAt(i - 1) == '-' ? -mValue : mValue;
+    }
+
+    /**
+     * the value of a single parameter in the reply to a record read out with 'Z|', e.g. 400 for 's' in
+     * '1Z|p+1s+400u+400o+1000'. returns null if the reply does not contain the parameter.
+     */
+    public Integer value(char pParameter) {
+        if (mReply == null) {
+            return null;
+        }
+        int i = mReply.indexOf("Z|");
+        if (i < 0) {
+            return null;
+        }
+        i += 2;
+        while (i < mReply.length()) {
+            final char mParameter = mReply.charAt(i++);
+            final int mStart = i;
+            if (i < mReply.length() && (mReply.charAt(i) == '+' || mReply.charAt(i) == '-')) {
+                i++;
+            }
+            while (i < mReply.length() && Character.isDigit(mReply.charAt(i))) {
+                i++;
+            }
+            if (mParameter == pParameter && i > mStart) {
+                try {
+                    return Integer.valueOf(mReply.substring(mReply.charAt(mStart) == '+' ? mStart + 1 : mStart, i));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * blocks until the command is done. returns true if the controller answered in time.
+     */
+    public boolean await(long pTimeoutMillis) {
+        try {
+            mDone.await(pTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return mAnswered;
+    }
+
+    /**
+     * blocks until the command is done or has been on the wire for the given time without an answer. unlike
+     * {@link #await(long)} the time only starts once the command was sent, so it can be used for commands at
+     * the end of a long queue.
+     */
+    public void awaitSettled(long pTimeoutMillis) {
+        final long mTimeout = pTimeoutMillis * 1000000L;
+        try {
+            while (!isDone() && (mSent == 0 || System.nanoTime() - mSent < mTimeout)) {
+                mDone.await(5, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean awaitNanos(long pTimeoutNanos) throws InterruptedException {
+        mDone.await(pTimeoutNanos, TimeUnit.NANOSECONDS);
+        return isDone();
+    }
+
+    /**
+     * time between leaving the output stream and being done in nanoseconds.
+     */
+    public long latencyNanos() {
+        return isDone() && mSent != 0 ? mDoneTime - mSent : -1;
+    }
+
+    long sentTime() {
+        return mSent;
+    }
+
+    void sent() {
+        mSent = System.nanoTime();
+        if (!expectsReply()) {
+            finish(null, false);
+        }
+    }
+
+    void answer(String pReply) {
+        finish(pReply, true);
+    }
+
+    void discard() {
+        finish(null, false);
+    }
+
+    private synchronized void finish(String pReply, boolean pAnswered) {
+        if (isDone()) {
+            return;
+        }
+        mReply = pReply;
+        mAnswered = pAnswered;
+        mDoneTime = System.nanoTime();
+        mDone.countDown();
+    }
+}
@@ -0,0 +1,328 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * plays the saetze of an akt one after another on its own thread. for every satz the record is loaded with
+ * 'y' {@link Properties#CUE_LOAD_LEAD} before its start, so the gap a broadcast needs has passed when the
+ * lone 'A' is sent on time. then the engine waits for the dauer_ms of the satz or, if the satz has none,
+ * until the {@link MotorStateTable} the {@link MotorPoller} fills has a ready status of every motor from after
+ * the start. deadlines are absolute, measured from the start
+ * of the previous satz, so a late cue does not delay the following ones.
+ * <p>
+ * while a satz runs the next one is staged. if the {@link RecordShadow} does not know its record to be
+ * stored on every motor, e.g. because the upload is still running, the satz is written into one of the two
+ * staging records {@link Properties#STAGING_RECORD_A} and {@link Properties#STAGING_RECORD_B}, always the one
+ * the running satz was not loaded from. the switch to the next satz stays a single 'y' and 'A'.
+ */
+public class CueEngine {
+
+    public static final int LOAD = 0;
+
+    public static final int START = 1;
+
+    public static final int WAIT_TIME = 2;
+
+    public static final int WAIT_READY = 3;
+
+    public static final int STAGE = 4;
+
+    public interface Listener {
+
+        /**
+         * called on the engine thread when a satz of the show was started.
+         */
+        void satzGestartet(int pSatz);
+    }
+
+    private final Serial mSerial;
+
+    private final Listener mListener;
+
+    private final RecordShadow mShadow;
+
+    private final MotorStateTable mStates;
+
+    private volatile Thread mThread;
+
+    /* the upload the engine thread runs to stage a satz */
+    private volatile ShowUpload mStaging;
+
+    private volatile long mMaxLateness;
+
+    public CueEngine(Serial pSerial, RecordShadow pShadow, MotorStateTable pStates, Listener pListener) {
+        mSerial = pSerial;
+        mShadow = pShadow;
+        mStates = pStates;
+        mListener = pListener;
+    }
+
+    /**
+     * the cues of an akt: load, start and wait for every satz, the next satz is staged before the wait.
+     */
+    public static List<Cue> cues(ShowModel pShow, int pAkt) {
+        final ArrayList<Cue> mCues = new ArrayList<Cue>();
+        if (pShow.numberOfSaetze(pAkt) > 0) {
+            mCues.add(new Cue(STAGE, pShow.satz(pAkt, 0), pShow.satzID(pShow.satz(pAkt, 0))));
+        }
+        for (int i = 0; i < pShow.numberOfSaetze(pAkt); i++) {
+            final int mSatz = pShow.satz(pAkt, i);
+            mCues.add(new Cue(LOAD, mSatz, pShow.satzID(mSatz)));
+            mCues.add(new Cue(START, mSatz, 0));
+            if (i + 1 < pShow.numberOfSaetze(pAkt)) {
+                final int mNext = pShow.satz(pAkt, i + 1);
+                mCues.add(new Cue(STAGE, mNext, pShow.satzID(mNext)));
+            }
+            if (pShow.dauer(mSatz) > 0) {
+                mCues.add(new Cue(WAIT_TIME, mSatz, pShow.dauer(mSatz)));
+            } else {
+                mCues.add(new Cue(WAIT_READY, mSatz, 0));
+            }
+        }
+        return mCues;
+    }
+
+    /**
+     * plays the cues of an akt, a running akt is stopped first. the akt is played in the current
+     * {@link Serial#generation()}, an emergency stop ends it for good.
+     */
+    public synchronized void play(ShowModel pShow, int pAkt) {
+        stop();
+        mThread = new Thread(new Player(cues(pShow, pAkt), pShow, mSerial.generation()), "CueEngine");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.MAX_PRIORITY);
+        mThread.start();
+    }
+
+    /**
+     * stops the akt and returns once the engine thread ended, nothing the engine queued is sent after an
+     * urgent command that follows. the commands of a satz that is being staged are given up, the engine does
+     * not wait for the upload to go out.
+     */
+    public synchronized void stop() {
+        final Thread mCurrent = mThread;
+        if (mCurrent == null) {
+            return;
+        }
+        mThread = null;
+        mCurrent.interrupt();
+        final ShowUpload mUpload = mStaging;
+        if (mUpload != null) {
+            mUpload.cancel();
+        }
+        if (mCurrent != Thread.currentThread()) {
+            try {
+                mCurrent.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isPlaying() {
+        final Thread mCurrent = mThread;
+        return mCurrent != null && mCurrent.isAlive();
+    }
+
+    /**
+     * the largest delay between the planned and the actual start of a satz in the last akt played.
+     */
+    public float maxLatenessMillis() {
+        return mMaxLateness / 1000000.0f;
+    }
+
+    private static void waitUntil(long pNanoTime) throws InterruptedException {
+        long mRemaining;
+        while ((mRemaining = pNanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(mRemaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /* one akt being played, everything it changes belongs to this run */
+    private class Player
+            implements Runnable {
+
+        private final List<Cue> mCues;
+
+        private final ShowModel mShow;
+
+        private final int mGeneration;
+
+        private final ArrayList<MotorCommand> mCommands;
+
+        /* the record the next LOAD cue loads and the record of the running satz */
+        private int mStagedRecord;
+
+        private int mRunningRecord;
+
+        /* System.nanoTime() when the running satz was started */
+        private long mStartedAt;
+
+        /* the 'y' of the satz the next START cue starts */
+        private CommandFuture mLoad;
+
+        Player(List<Cue> pCues, ShowModel pShow, int pGeneration) {
+            mCues = pCues;
+            mShow = pShow;
+            mGeneration = pGeneration;
+            mCommands = new ArrayList<MotorCommand>();
+        }
+
+        public void run() {
+            final long mLead = Properties.CUE_LOAD_LEAD * 1000000L;
+            long mLateness = 0;
+            mMaxLateness = 0;
+            long mDeadline = System.nanoTime();
+            try {
+                for (int i = 0; i < mCues.size(); i++) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    final Cue mCue = mCues.get(i);
+                    switch (mCue.type) {
+                        case STAGE:
+                            stage(mCue.satz, mCue.value);
+                            if (mRunningRecord == 0) {
+                                /* the first satz starts once it is staged and loaded */
+                                mDeadline = System.nanoTime() + mLead;
+                            }
+                            break;
+                        case LOAD:
+                            waitUntil(mDeadline - mLead);
+                            mLoad = mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'y', mStagedRecord),
+                                                  mGeneration);
+                            mRunningRecord = mStagedRecord;
+                            break;
+                        case START:
+                            waitUntil(mDeadline);
+                            final CommandFuture mStart = start();
+                            final long mStarted = mStart.sentTime();
+                            if (mStarted != 0) {
+                                mLateness = Math.max(mLateness, mStarted - mDeadline);
+                                mMaxLateness = mLateness;
+                                mStartedAt = mStarted;
+                            } else {
+                                mStartedAt = System.nanoTime();
+                            }
+                            mListener.satzGestartet(mCue.satz);
+                            break;
+                        case WAIT_TIME:
+                            /* the next satz is timed from the planned start, not from the actual one */
+                            mDeadline += mCue.value * 1000000L;
+                            break;
+                        case WAIT_READY:
+                            waitReady();
+                            mDeadline = System.nanoTime() + mLead;
+                            break;
+                    }
+                }
+                System.out.println("### akt played, starts were late by at most " + mLateness / 1000000.0f + "ms");
+            } catch (InterruptedException e) {
+                /* stopped */
+            } finally {
+                for (MotorCommand mCommand : mCommands) {
+                    mCommand.release();
+                }
+                mCommands.clear();
+            }
+        }
+
+        /* writes the start of a satz, together with its load if that was dropped. a start that was dropped
+         * because the serial queue was full is tried again until it went out, the deadline of the satz is missed
+         * then but the show goes on. a start discarded by an emergency stop ends the akt. */
+        private CommandFuture start() throws InterruptedException {
+            final int mRecord = mRunningRecord;
+            if (mLoad.isDiscarded()) {
+                mCommands.add(MotorCommand.set(MotorCommand.BROADCAST, 'y', mRecord));
+            }
+            while (true) {
+                mCommands.add(MotorCommand.send(MotorCommand.BROADCAST, 'A'));
+                final CommandFuture[] mFutures = mSerial.writeAll(mCommands, mGeneration);
+                mCommands.clear();
+                final CommandFuture mStart = mFutures[mFutures.length - 1];
+                mStart.awaitSettled(Properties.SERIAL_REPLY_TIMEOUT);
+                if (!mStart.isDiscarded()) {
+                    return mStart;
+                }
+                if (mSerial.generation() != mGeneration) {
+                    throw new InterruptedException();
+                }
+                System.out.println("### start of record " + mRecord + " was discarded, trying again");
+                Thread.sleep(Properties.CUE_POLL_INTERVAL);
+                mCommands.add(MotorCommand.set(MotorCommand.BROADCAST, 'y', mRecord));
+            }
+        }
+
+        /* the record the satz is loaded from, its own one if it is stored already */
+        private void stage(int pSatz, int pSatzID) {
+            final ShowUpload mUpload = new ShowUpload(mSerial, mShadow, mGeneration);
+            if (mUpload.isStored(mShow, pSatz, pSatzID)) {
+                mStagedRecord = pSatzID;
+                return;
+            }
+            final int mRecord = mRunningRecord == Properties.STAGING_RECORD_A ? Properties.STAGING_RECORD_B
+                                                                              : Properties.STAGING_RECORD_A;
+            /* the values go into the working set of the motors, a running satz keeps the values it was started
+             * with */
+            mUpload.addSatz(mShow, pSatz, mRecord);
+            mStaging = mUpload;
+            try {
+                mUpload.run();
+            } finally {
+                mStaging = null;
+            }
+            if (Thread.currentThread().isInterrupted() || mSerial.generation() != mGeneration) {
+                /* stopped while staging, the staging record may hold a part of the satz */
+                mUpload.forget();
+                mStagedRecord = pSatzID;
+            } else if (mUpload.isStored(mShow, pSatz, mRecord)) {
+                mStagedRecord = mRecord;
+            } else {
+                System.out.println("### could not stage satz " + mShow.satzName(pSatz) + ", loading record "
+                        + pSatzID);
+                mStagedRecord = pSatzID;
+            }
+        }
+
+        private void waitReady() throws InterruptedException {
+            while (true) {
+                Thread.sleep(Properties.CUE_POLL_INTERVAL);
+                boolean mReady = true;
+                for (int i = 1; i <= mShow.numberOfLeinwaende(); i++) {
+                    /* a motor that does not answer must not hold up the show */
+                    if (!mStates.isReadySince(i, mStartedAt) && mStates.isAnswering(i, mStartedAt)) {
+                        mReady = false;
+                        break;
+                    }
+                }
+                if (mReady) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static class Cue {
+
+        public final int type;
+
+        /* the satz of the show the cue belongs to */
+        public final int satz;
+
+        /* satz id for LOAD and STAGE, milliseconds for WAIT_TIME */
+        public final int value;
+
+        public Cue(int pType, int pSatz, int pValue) {
+            type = pType;
+            satz = pSatz;
+            value = pValue;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+/**
+ * a tty or pty device file that is opened like a plain file. this works for a port that was configured
+ * outside of java (e.g. with stty) and for one end of a pty pair, e.g.
+ * <pre>socat -d -d pty,raw,echo=0 pty,raw,echo=0</pre>
+ * with a test harness or a recording tool attached to the other end.
+ */
+public class DeviceMotorBus
+        implements MotorBus {
+
+    public static final String PREFIX = "file:";
+
+    private final File mDevice;
+
+    private final InputStream mIn;
+
+    private final OutputStream mOut;
+
+    private DeviceMotorBus(File pDevice, InputStream pInputStream, OutputStream pOutputStream) {
+        mDevice = pDevice;
+        mIn = pInputStream;
+        mOut = pOutputStream;
+    }
+
+    public InputStream inputStream() {
+        return mIn;
+    }
+
+    public OutputStream outputStream() {
+        return mOut;
+    }
+
+    public String name() {
+        return PREFIX + mDevice.getPath();
+    }
+
+    public void close() {
+        try {
+            mOut.close();
+            mIn.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static DeviceMotorBus open(String pDevice) {
+        final File mDevice = new File(pDevice);
+        try {
+            return new DeviceMotorBus(mDevice, new FileInputStream(mDevice), new FileOutputStream(mDevice));
+        } catch (IOException e) {
+            System.err.println("### could not open device " + pDevice + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
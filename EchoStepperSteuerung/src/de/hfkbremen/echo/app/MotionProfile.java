@@ -0,0 +1,165 @@
+package de.hfkbremen.echo.app;
+
+
+/**
+ * the motion of a motor after 'A', evaluated in closed form from the time since the start. a single move
+ * accelerates with the start ramp 'b' up to the speed 'o', travels and brakes with the brake ramp 'B', short
+ * moves never reach the speed and brake right away. the move is done 'W' times, 0 means endlessly, with a
+ * pause of 'P' milliseconds between two repetitions. with direction reversal 't' every second repetition
+ * moves back, without it a relative move keeps going in the same direction. an absolute move without
+ * reversal is at its target after the first repetition, the repetitions after it do not move.
+ * <p>
+ * a profile never changes, position(long) can be called for any time in any order and costs the same
+ * for the first and the millionth repetition.
+ */
+public final class MotionProfile {
+
+    /* drehmodus_p, see 'Positioniermodus einstellen' in the programming manual */
+    public static final int RELATIVE = 1;
+
+    public static final int ABSOLUTE = 2;
+
+    private final int mStartPosition;
+
+    private final int mDistance;
+
+    private final int mRepetitions;
+
+    private final boolean mReversal;
+
+    private final float mAcceleration;
+
+    private final float mDeceleration;
+
+    private final float mPeak;
+
+    /* duration of one move and of one move with its pause in nanoseconds */
+    private final long mMove;
+
+    private final long mCycle;
+
+    /**
+     * @param pDistance signed steps of the first repetition
+     */
+    public MotionProfile(int pStartPosition, int pDistance, int pSpeed, int pStartrampe, int pBremsrampe,
+                         int pWiederholungen, boolean pRichtungswechsel, int pPause) {
+        mStartPosition = pStartPosition;
+        mDistance = pDistance;
+        mReversal = pRichtungswechsel;
+        mRepetitions = pWiederholungen;
+        mAcceleration = acceleration(pStartrampe);
+        mDeceleration = pBremsrampe == 0 ? mAcceleration : acceleration(pBremsrampe);
+        final float mSteps = Math.abs(pDistance);
+        final float mTriangle = (float)Math.sqrt(2 * mSteps * mAcceleration * mDeceleration
+                / (mAcceleration + mDeceleration));
+        mPeak = Math.min(Math.max(1, pSpeed), mTriangle);
+        if (mPeak <= 0) {
+            mMove = 0;
+        } else {
+            final float mRamps = mPeak * mPeak / (2 * mAcceleration) + mPeak * mPeak / (2 * mDeceleration);
+            mMove = Math.round((mPeak / mAcceleration + mPeak / mDeceleration + (mSteps - mRamps) / mPeak) * 1e9);
+        }
+        mCycle = mMove + pPause * 1000000L;
+    }
+
+    /**
+     * the profile of a satz for one leinwand like the controller runs it after loading the record.
+     *
+     * @param pSteps the position value 's' of the leinwand, absolute or relative depending on the drehmodus
+     */
+    public static MotionProfile satz(ShowModel pShow, int pSatz, int pLeinwand, int pStartPosition, int pSteps) {
+        return start(pShow.drehmodus(pSatz), pStartPosition, pSteps, pShow.drehrichtung(pSatz, pLeinwand),
+                     pShow.speed(pSatz, pLeinwand), pShow.startrampe(pSatz), pShow.bremsrampe(pSatz),
+                     pShow.wiederholungen(pSatz), pShow.richtungswechsel(pSatz), pShow.pause(pSatz));
+    }
+
+    /**
+     * the profile of a start with 'A' from the given working values. modes other than relative and absolute
+     * positioning are not simulated and treated like absolute positioning.
+     */
+    public static MotionProfile start(int pDrehmodus, int pStartPosition, int pSteps, int pDrehrichtung,
+                                      int pSpeed, int pStartrampe, int pBremsrampe, int pWiederholungen,
+                                      int pRichtungswechsel, int pPause) {
+        if (pDrehmodus == RELATIVE) {
+            return new MotionProfile(pStartPosition, pDrehrichtung == 0 ? pSteps : -pSteps, pSpeed, pStartrampe,
+                                     pBremsrampe, pWiederholungen, pRichtungswechsel == 1, pPause);
+        }
+        return new MotionProfile(pStartPosition, pSteps - pStartPosition, pSpeed, pStartrampe, pBremsrampe,
+                                 pRichtungswechsel == 1 ? pWiederholungen : 1, pRichtungswechsel == 1, pPause);
+    }
+
+    /**
+     * acceleration in steps/s^2 for a ramp value, see 'Beschleunigungsrampe einstellen' in the programming
+     * manual.
+     */
+    public static float acceleration(int pRamp) {
+        return Math.max(1, (float)(3000.0 / Math.sqrt(Math.max(1, pRamp)) - 11.7) * 1000);
+    }
+
+    /**
+     * nanoseconds from the start until the last repetition stopped, Long.MAX_VALUE if the motion is endless.
+     */
+    public long duration() {
+        if (mRepetitions == 0) {
+            return Long.MAX_VALUE;
+        }
+        return (mRepetitions - 1) * mCycle + mMove;
+    }
+
+    /**
+     * the highest speed of a move in steps/s, lower than the speed 'o' if the move is too short to reach it.
+     */
+    public float peakSpeed() {
+        return mPeak;
+    }
+
+    public boolean isMoving(long pNanos) {
+        return pNanos < duration();
+    }
+
+    /**
+     * the position pNanos nanoseconds after the start.
+     */
+    public int position(long pNanos) {
+        /* a cycle of 0 is a move of 0 steps without pause */
+        if (pNanos <= 0 || mCycle == 0) {
+            return mStartPosition;
+        }
+        final long mRepetition = pNanos / mCycle;
+        if (mRepetitions != 0 && mRepetition >= mRepetitions) {
+            return mStartPosition + offset(mRepetitions);
+        }
+        final long mInCycle = pNanos - mRepetition * mCycle;
+        final int mTravelled = Math.round(travelled(mInCycle));
+        return mStartPosition + offset(mRepetition) + (mReversal && mRepetition % 2 == 1 ? -1 : 1)
+                                                      * Integer.signum(mDistance) * mTravelled;
+    }
+
+    /* where repetition pRepetition starts, relative to the start position */
+    private int offset(long pRepetition) {
+        if (mReversal) {
+            return pRepetition % 2 == 0 ? 0 : mDistance;
+        }
+        return (int)(pRepetition * mDistance);
+    }
+
+    /* steps travelled in one move, in its pause the move is complete */
+    private float travelled(long pNanos) {
+        final float mSteps = Math.abs(mDistance);
+        if (pNanos >= mMove) {
+            return mSteps;
+        }
+        final float t = pNanos / 1e9f;
+        final float mAccelerationTime = mPeak / mAcceleration;
+        final float mDecelerationTime = mPeak / mDeceleration;
+        final float mTotal = mMove / 1e9f;
+        if (t < mAccelerationTime) {
+            return 0.5f * mAcceleration * t * t;
+        } else if (t < mTotal - mDecelerationTime) {
+            return 0.5f * mPeak * mAccelerationTime + mPeak * (t - mAccelerationTime);
+        } else {
+            final float mLeft = mTotal - t;
+            return Math.max(0, mSteps - 0.5f * mDeceleration * mLeft * mLeft);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+/**
+ * the transport {@link Serial} talks to the motor controllers through.
+ *
+ * @see RXTXMotorBus
+ * @see DeviceMotorBus
+ * @see SimulatedMotorBus
+ */
+public interface MotorBus {
+
+    InputStream inputStream();
+
+    OutputStream outputStream();
+
+    String name();
+
+    void close();
+}
@@ -0,0 +1,276 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * a single frame for the motor controllers, encoded as ASCII straight into a pooled buffer. commands are
+ * taken from the pool with one of the factory methods and handed to {@link Serial#write(MotorCommand)},
+ * which returns them to the pool once they are sent. a command must not be used after it was written.
+ * <pre>
+ * mSerial.write(MotorCommand.set(3, 'o', 5));                        // #3o5\r
+ * mSerial.write(MotorCommand.send(MotorCommand.BROADCAST, 'A'));     // #*A\r
+ * mSerial.write(MotorCommand.read(3, 's'));                          // #3Zs\r
+ * </pre>
+ */
+public final class MotorCommand {
+
+    public static final int BROADCAST = 0;
+
+    /* motor addresses range from 1 to 254 */
+    public static final int MAX_MOTOR_ID = 254;
+
+    /* plain commands use their character, read commands 128 + parameter, long ':' commands 256 + hash */
+    static final int NUMBER_OF_MNEMONICS = 512;
+
+    private static final int CAPACITY = 48;
+
+    private static final ConcurrentLinkedQueue<MotorCommand> POOL = new ConcurrentLinkedQueue<MotorCommand>();
+
+    final ByteBuffer bytes;
+
+    int motor;
+
+    int mnemonic;
+
+    int generation;
+
+    /* polls and other background traffic, left out of the burst statistics */
+    boolean background;
+
+    CommandFuture future;
+
+    /* the following command of a batch, see Serial#writeAll */
+    MotorCommand next;
+
+    private MotorCommand() {
+        bytes = ByteBuffer.allocate(CAPACITY);
+    }
+
+    /**
+     * a command without value, e.g. 'A' to start or '$' to query the status.
+     */
+    public static MotorCommand send(int pMotor, char pCommand) {
+        final MotorCommand mCommand = obtain(pMotor);
+        mCommand.mnemonic = pCommand & 0x7F;
+        mCommand.bytes.put((byte)pCommand);
+        return mCommand.end();
+    }
+
+    /**
+     * a command with a value, e.g. 's' to set the target position.
+     */
+    public static MotorCommand set(int pMotor, char pCommand, int pValue) {
+        final MotorCommand mCommand = obtain(pMotor);
+        mCommand.mnemonic = pCommand & 0x7F;
+        mCommand.bytes.put((byte)pCommand);
+        mCommand.putInt(pValue);
+        return mCommand.end();
+    }
+
+    /**
+     * reads the current value of a parameter with 'Z', e.g. 'Zs'.
+     */
+    public static MotorCommand read(int pMotor, char pParameter) {
+        final MotorCommand mCommand = obtain(pMotor);
+        mCommand.mnemonic = 128 + (pParameter & 0x7F);
+        mCommand.bytes.put((byte)'Z');
+        mCommand.bytes.put((byte)pParameter);
+        return mCommand.end();
+    }
+
+    /**
+     * encodes a complete frame given as text, e.g. "#*@A\r". the end character is added if it is missing. a
+     * frame to a motor id outside 1 to {@link #MAX_MOTOR_ID} is rejected with an IllegalArgumentException.
+     */
+    public static MotorCommand parse(CharSequence pFrame) {
+        final MotorCommand mCommand = obtain(BROADCAST);
+        boolean mParsed = false;
+        try {
+            mCommand.bytes.clear();
+            final int mLength = Math.min(pFrame.length(), CAPACITY - 1);
+            for (int i = 0; i < mLength; i++) {
+                mCommand.bytes.put((byte)pFrame.charAt(i));
+            }
+            if (mLength == 0 || pFrame.charAt(mLength - 1) != '\r') {
+                mCommand.bytes.put((byte)'\r');
+            }
+            final boolean mIsFrame = mLength > 0 && pFrame.charAt(0) == '#';
+            mCommand.motor = mIsFrame ? parseMotor(pFrame, 1) : -1;
+            mCommand.mnemonic = mIsFrame ? parseMnemonic(pFrame, 1) : -1;
+            if (mIsFrame && mLength > 1 && pFrame.charAt(1) != '*' && mCommand.motor >= 0
+                    && !isMotorID(mCommand.motor)) {
+                throw new IllegalArgumentException("motor id out of range: " + pFrame);
+            }
+            mParsed = true;
+            return mCommand;
+        } finally {
+            /* the command goes back to the pool on every error */
+            if (!mParsed) {
+                mCommand.release();
+            }
+        }
+    }
+
+    public int motor() {
+        return motor;
+    }
+
+    public boolean isBroadcast() {
+        return motor == BROADCAST;
+    }
+
+    /**
+     * true if the addressed controller answers this command.
+     */
+    public boolean expectsReply() {
+        return motor > 0 && mnemonic >= 0;
+    }
+
+    public int length() {
+        return bytes.position();
+    }
+
+    /**
+     * writes the frame with a single write.
+     */
+    void writeTo(OutputStream pOut) throws IOException {
+        pOut.write(bytes.array(), 0, bytes.position());
+    }
+
+    void release() {
+        future = null;
+        next = null;
+        POOL.offer(this);
+    }
+
+    /**
+     * the frame without the end character. only meant for logging, this allocates.
+     */
+    public String toString() {
+        final int mLength = Math.max(0, bytes.position() - 1);
+        final char[] mChars = new char[mLength];
+        for (int i = 0; i < mLength; i++) {
+            mChars[i] = (char)(bytes.get(i) & 0xFF);
+        }
+        return new String(mChars);
+    }
+
+    /**
+     * the motor id of a command ('#12o5' at offset 1) or a reply ('12o5' at offset 0), {@link #BROADCAST}
+     * for '*' or -1 if there is no address.
+     */
+    static int parseMotor(CharSequence pFrame, int pOffset) {
+        if (pOffset < pFrame.length() && pFrame.charAt(pOffset) == '*') {
+            return BROADCAST;
+        }
+        int mMotor = 0;
+        int i = pOffset;
+        while (i < pFrame.length() && pFrame.charAt(i) >= '0' && pFrame.charAt(i) <= '9') {
+            mMotor = mMotor * 10 + pFrame.charAt(i) - '0';
+            i++;
+        }
+        return i == pOffset ? -1 : mMotor;
+    }
+
+    /**
+     * the mnemonic following the address, or -1 if there is none.
+     */
+    static int parseMnemonic(CharSequence pFrame, int pOffset) {
+        int i = pOffset;
+        final int mLength = pFrame.length();
+        while (i < mLength && (pFrame.charAt(i) == '*' || pFrame.charAt(i) >= '0' && pFrame.charAt(i) <= '9')) {
+            i++;
+        }
+        if (i == pOffset || i == mLength || pFrame.charAt(i) == '\r') {
+            return -1;
+        }
+        final char mCommand = pFrame.charAt(i++);
+        if (mCommand == 'Z' && i < mLength && pFrame.charAt(i) != '\r') {
+            return 128 + (pFrame.charAt(i) & 0x7F);
+        }
+        if (mCommand == ':') {
+            int mHash = 0;
+            while (i < mLength && (Character.isLetter(pFrame.charAt(i)) || pFrame.charAt(i) == '_')) {
+                mHash = mHash * 31 + pFrame.charAt(i);
+                i++;
+            }
+            return 256 + (mHash & 0xFF);
+        }
+        return mCommand & 0x7F;
+    }
+
+    /**
+     * the mnemonic as text for logging, e.g. 'o' or 'Zs'.
+     */
+    static String mnemonicName(int pMnemonic) {
+        if (pMnemonic < 128) {
+            return String.valueOf((char)pMnemonic);
+        }
+        if (pMnemonic < 256) {
+            return "Z" + (char)(pMnemonic - 128);
+        }
+        return ":" + (pMnemonic - 256);
+    }
+
+    /* commands waiting in the pool, a command that is never released is missing here */
+    static int pooled() {
+        return POOL.size();
+    }
+
+    private static boolean isMotorID(int pMotor) {
+        return pMotor >= 1 && pMotor <= MAX_MOTOR_ID;
+    }
+
+    /* every factory method takes its command from here, a motor id the bus can not address is rejected */
+    private static MotorCommand obtain(int pMotor) {
+        if (pMotor != BROADCAST && !isMotorID(pMotor)) {
+            throw new IllegalArgumentException("motor id out of range: " + pMotor);
+        }
+        MotorCommand mCommand = POOL.poll();
+        if (mCommand == null) {
+            mCommand = new MotorCommand();
+        }
+        mCommand.bytes.clear();
+        mCommand.motor = pMotor;
+        mCommand.generation = 0;
+        mCommand.background = false;
+        mCommand.future = null;
+        mCommand.next = null;
+        mCommand.bytes.put((byte)'#');
+        if (pMotor == BROADCAST) {
+            mCommand.bytes.put((byte)'*');
+        } else {
+            mCommand.putInt(pMotor);
+        }
+        return mCommand;
+    }
+
+    private MotorCommand end() {
+        bytes.put((byte)'\r');
+        return this;
+    }
+
+    private void putInt(int pValue) {
+        long mValue = pValue;
+        if (mValue < 0) {
+            bytes.put((byte)'-');
+            mValue = -mValue;
+        }
+        final int mStart = bytes.position();
+        do {
+            bytes.put((byte)('0' + mValue % 10));
+            mValue /= 10;
+        } while (mValue > 0);
+        /* digits were written least significant first */
+        for (int i = mStart, j = bytes.position() - 1; i < j; i++, j--) {
+            final byte b = bytes.get(i);
+            bytes.put(i, bytes.get(j));
+            bytes.put(j, b);
+        }
+    }
+}
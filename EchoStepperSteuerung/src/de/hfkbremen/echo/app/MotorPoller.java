@@ -0,0 +1,89 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * asks the motors one after another for their position with 'C' and their status with '$' and writes the
+ * answers to a {@link MotorStateTable}. only one motor is asked at a time and the next one only once both
+ * answers are in or timed out.
+ * <p>
+ * the polls use what is left of the bus. when other commands are waiting in the serial queue the interval
+ * between two motors is doubled up to {@link Properties#POLL_MAX_INTERVAL}, while the queue is empty it is
+ * halved again down to {@link Properties#POLL_MIN_INTERVAL}.
+ */
+public class MotorPoller
+        implements Runnable {
+
+    private final Serial mSerial;
+
+    private final MotorStateTable mTable;
+
+    private final ArrayList<MotorCommand> mCommands;
+
+    private volatile Thread mThread;
+
+    private volatile int mInterval;
+
+    private int mMotor;
+
+    public MotorPoller(Serial pSerial, MotorStateTable pTable) {
+        mSerial = pSerial;
+        mTable = pTable;
+        mCommands = new ArrayList<MotorCommand>();
+        mInterval = Properties.POLL_MIN_INTERVAL;
+        mMotor = 1;
+    }
+
+    public synchronized void start() {
+        if (mThread == null) {
+            mThread = new Thread(this, "MotorPoller");
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (mThread != null) {
+            mThread.interrupt();
+            mThread = null;
+        }
+    }
+
+    /**
+     * the current time between polling two motors in milliseconds.
+     */
+    public int interval() {
+        return mInterval;
+    }
+
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(mInterval * 1000000L);
+            /* our own queries are answered at this point, everything waiting belongs to someone else */
+            if (mSerial.pending() > 0) {
+                mInterval = Math.min(mInterval * 2, Properties.POLL_MAX_INTERVAL);
+                continue;
+            }
+            mInterval = Math.max(mInterval / 2, Properties.POLL_MIN_INTERVAL);
+            poll(mMotor);
+            mMotor = mMotor % mTable.numberOfMotors() + 1;
+        }
+    }
+
+    private void poll(int pMotor) {
+        mCommands.add(MotorCommand.send(pMotor, 'C'));
+        mCommands.add(MotorCommand.send(pMotor, '$'));
+        final CommandFuture[] mFutures = mSerial.writeBackground(mCommands);
+        mCommands.clear();
+        mFutures[1].awaitSettled(Properties.SERIAL_REPLY_TIMEOUT);
+        if (mFutures[0].isAnswered() && !mFutures[0].isError()) {
+            mTable.setPosition(pMotor, mFutures[0].value());
+        }
+        if (mFutures[1].isAnswered() && !mFutures[1].isError()) {
+            mTable.setStatus(pMotor, mFutures[1].value());
+        }
+    }
+}
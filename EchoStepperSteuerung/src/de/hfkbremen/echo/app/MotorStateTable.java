@@ -0,0 +1,93 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * the last position and status every motor reported. the {@link MotorPoller} is the only writer, the gui
+ * reads the table every frame and the {@link CueEngine} while it waits for a satz, both without a lock.
+ * position and status of a motor are separate values, a reader may see the position of one poll together
+ * with the status of the previous one.
+ */
+public class MotorStateTable {
+
+    /* bit 0 of the '$' status */
+    public static final int STATUS_READY = 1;
+
+    private final int mNumberOfMotors;
+
+    /* index is motor id - 1 */
+    private final AtomicIntegerArray mPosition;
+
+    private final AtomicIntegerArray mStatus;
+
+    /* System.nanoTime() of the last answer, 0 if the motor never answered */
+    private final AtomicLongArray mUpdated;
+
+    private final AtomicLongArray mStatusUpdated;
+
+    public MotorStateTable(int pNumberOfMotors) {
+        mNumberOfMotors = pNumberOfMotors;
+        mPosition = new AtomicIntegerArray(pNumberOfMotors);
+        mStatus = new AtomicIntegerArray(pNumberOfMotors);
+        mUpdated = new AtomicLongArray(pNumberOfMotors);
+        mStatusUpdated = new AtomicLongArray(pNumberOfMotors);
+    }
+
+    public int numberOfMotors() {
+        return mNumberOfMotors;
+    }
+
+    public void setPosition(int pMotor, int pSteps) {
+        mPosition.set(pMotor - 1, pSteps);
+        mUpdated.set(pMotor - 1, System.nanoTime());
+    }
+
+    public void setStatus(int pMotor, int pStatus) {
+        final long mNow = System.nanoTime();
+        mStatus.set(pMotor - 1, pStatus);
+        mStatusUpdated.set(pMotor - 1, mNow);
+        mUpdated.set(pMotor - 1, mNow);
+    }
+
+    public int position(int pMotor) {
+        return mPosition.get(pMotor - 1);
+    }
+
+    public int status(int pMotor) {
+        return mStatus.get(pMotor - 1);
+    }
+
+    public boolean isReady(int pMotor) {
+        return (status(pMotor) & STATUS_READY) != 0;
+    }
+
+    /**
+     * true if the last status of the motor arrived after pNanoTime and reports it ready, e.g. a status that
+     * was asked for after the motor was started.
+     */
+    public boolean isReadySince(int pMotor, long pNanoTime) {
+        return mStatusUpdated.get(pMotor - 1) - pNanoTime > 0 && isReady(pMotor);
+    }
+
+    /**
+     * true if the motor answered within one round of the poller at its slowest, after pNanoTime or before. a
+     * motor that did not answer since pNanoTime is given one round to do so.
+     */
+    public boolean isAnswering(int pMotor, long pNanoTime) {
+        final long mUpdatedAt = mUpdated.get(pMotor - 1);
+        final long mSince = mUpdatedAt - pNanoTime > 0 ? mUpdatedAt : pNanoTime;
+        final long mRound = (long) mNumberOfMotors * (Properties.POLL_MAX_INTERVAL + Properties.SERIAL_REPLY_TIMEOUT);
+        return System.nanoTime() - mSince < mRound * 1000000L;
+    }
+
+    /**
+     * true if the motor answered within the last {@link Properties#MOTOR_STATE_MAX_AGE} milliseconds.
+     */
+    public boolean isFresh(int pMotor) {
+        final long mUpdatedAt = mUpdated.get(pMotor - 1);
+        return mUpdatedAt != 0 && System.nanoTime() - mUpdatedAt < Properties.MOTOR_STATE_MAX_AGE * 1000000L;
+    }
+}
@@ -21,10 +21,63 @@ public class Properties {
 
     public static final int NUMBER_OF_LEINWAENDE = 17;
 
+    /* e.g. -Decho.bus=sim or -Decho.bus=file:/dev/ttys004, see Serial.open */
+    public static final String MOTOR_BUS = System.getProperty("echo.bus", "/dev/tty.SLAB_USBtoUART");
+
     public static final int motorSchrittBereich = 1000;
 
     public static final int DELAY_BETWEEN_SERIAL_WRITES = 20;
 
+    public static final int SERIAL_QUEUE_CAPACITY = 4096;
+
+    public static final int SERIAL_REPLY_TIMEOUT = 200;
+
+    public static final int SERIAL_MIN_REPLY_TIMEOUT = 2;
+
+    public static final int SERIAL_PACING_FIXED = 0;
+
+    public static final int SERIAL_PACING_ACK = 1;
+
+    public static final int SERIAL_PACING = SERIAL_PACING_ACK;
+
+    public static final int SERIAL_WINDOW = 1;
+
+    public static final int SERIAL_BURST_REPORT = 50;
+
+    /* time on the bus in answered unicasts with ack pacing: a broadcast with the gap after it and a 'Z|' read out
+     * of a record with its long answer */
+    public static final int SERIAL_BROADCAST_COST = 10;
+
+    public static final int SERIAL_READ_OUT_COST = 3;
+
+    /* set-points per second in the live mode of the manuell tab */
+    public static final int SETPOINT_RATE = 10;
+
+    public static final int SETPOINT_MAX_PENDING = 2 * NUMBER_OF_LEINWAENDE;
+
+    /* milliseconds between two checks of the show xml */
+    public static final int SHOW_WATCH_INTERVAL = 1000;
+
+    /* milliseconds between two status queries while the cue engine waits for the motors */
+    public static final int CUE_POLL_INTERVAL = 50;
+
+    /* milliseconds the cue engine loads a satz with '#*y' before its start, a broadcast needs
+     * DELAY_BETWEEN_SERIAL_WRITES before the '#*A' may follow */
+    public static final int CUE_LOAD_LEAD = 2 * DELAY_BETWEEN_SERIAL_WRITES;
+
+    /* milliseconds between polling two motors for position and status, adapted to the traffic on the bus */
+    public static final int POLL_MIN_INTERVAL = 5;
+
+    public static final int POLL_MAX_INTERVAL = 320;
+
+    /* milliseconds a polled position is shown before the gui falls back to simulating the motion */
+    public static final int MOTOR_STATE_MAX_AGE = 1000;
+
+    /* the two last record slots are not used by the show, the cue engine stages the next satz in them */
+    public static final int STAGING_RECORD_A = 31;
+
+    public static final int STAGING_RECORD_B = 32;
+
     public static final int LETZTE_LEINWAND = 12;
 
     public static final int START_BUTTON = 25;
@@ -51,5 +104,11 @@ public class Properties {
 
     public static final int LADEN_SATZ_1 = 28;
 
+    public static final int ALLE_SAETZE_SCHREIBEN_BUTTON = 31;
+
+    public static final int LIVE_TOGGLE = 32;
+
+    public static final int AKT_ABSPIELEN_BUTTON = 33;
+
     public static final boolean DEBUG = false;
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * checks the encoding of the frames against the cases that went wrong before, and that the setpoint streamer
+ * and the upload repeat what a {@link SimulatedMotorBus} refused. runs without hardware and without a display
+ * and exits with 1 if a check fails:
+ * <pre>java de.hfkbremen.echo.app.ProtocolCheck</pre>
+ */
+public class ProtocolCheck {
+
+    private static int mFailed;
+
+    /* how long a motor may take to reach its last target */
+    private static final long SETTLE_TIME = 5000;
+
+    public static void main(String[] args) throws IOException {
+        checkParse();
+        checkStreamerRetry();
+        checkUploadRetry();
+        if (mFailed > 0) {
+            System.out.println("### " + mFailed + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("### all checks passed");
+    }
+
+    private static void checkParse() {
+        /* the pool holds a command, a command parse does not release is missing from it afterwards */
+        MotorCommand.parse("#1A").release();
+        final int mPooled = MotorCommand.pooled();
+
+        final MotorCommand mEmpty = MotorCommand.parse("");
+        check("\"\" has no motor", mEmpty.motor() == -1);
+        check("\"\" is only the end character", mEmpty.length() == 1);
+        check("\"\" expects no reply", !mEmpty.expectsReply());
+        mEmpty.release();
+
+        final MotorCommand mHash = MotorCommand.parse("#");
+        check("\"#\" has no motor", mHash.motor() == -1);
+        check("\"#\" is kept with the end character", mHash.length() == 2 && "#".equals(mHash.toString()));
+        check("\"#\" expects no reply", !mHash.expectsReply());
+        mHash.release();
+
+        final MotorCommand mBroadcast = MotorCommand.parse("#*A");
+        check("\"#*A\" is a broadcast", mBroadcast.isBroadcast() && !mBroadcast.expectsReply());
+        mBroadcast.release();
+
+        final MotorCommand mUnicast = MotorCommand.parse("#12$\r");
+        check("\"#12$\" goes to motor 12", mUnicast.motor() == 12 && mUnicast.expectsReply());
+        check("\"#12$\" keeps its end character", mUnicast.length() == 5);
+        mUnicast.release();
+
+        try {
+            MotorCommand.parse("#300A");
+            check("\"#300A\" is rejected", false);
+        } catch (IllegalArgumentException e) {
+            check("\"#300A\" is rejected", true);
+        }
+        check("parse releases every command", MotorCommand.pooled() == mPooled);
+    }
+
+    /* a target set while the motor still moves is refused and sent again until the motor took it */
+    private static void checkStreamerRetry() {
+        final SimulatedMotorBus mBus = new SimulatedMotorBus(1);
+        final Serial mSerial = Serial.open(mBus);
+        mSerial.write(MotorCommand.set(1, 'o', 2000)).await(Properties.SERIAL_REPLY_TIMEOUT);
+        final SetpointStreamer mStreamer = new SetpointStreamer(mSerial, 1);
+        mStreamer.set(1, 1000);
+        mStreamer.start();
+        final SimulatedMotorBus.SimulatedController mMotor = mBus.controller(1);
+        final long mStart = System.currentTimeMillis();
+        while (mMotor.starts() == 0 && System.currentTimeMillis() - mStart < SETTLE_TIME) {
+            Thread.yield();
+        }
+        mStreamer.set(1, 200);
+        while ((mMotor.position() != 200 || !mMotor.isReady()) && System.currentTimeMillis() - mStart < SETTLE_TIME) {
+            Thread.yield();
+        }
+        mStreamer.halt();
+        check("a start while moving is refused", mMotor.errors() > 0);
+        check("the streamer repeats a refused start", mMotor.position() == 200 && mMotor.starts() == 2);
+        mSerial.close();
+    }
+
+    /* a record whose store was refused is left out of the shadow and written completely by the next upload */
+    private static void checkUploadRetry() throws IOException {
+        final int mMotors = 3;
+        final SimulatedMotorBus mBus = new SimulatedMotorBus(mMotors);
+        final Serial mSerial = Serial.open(mBus);
+        final File mShadowFile = File.createTempFile("records", ".properties");
+        mShadowFile.deleteOnExit();
+        final RecordShadow mShadow = new RecordShadow(mShadowFile);
+        final int[][] mLeinwandValues = new int[mMotors][];
+        for (int i = 0; i < mMotors; i++) {
+            mLeinwandValues[i] = new int[] {100 * (i + 1), 1000 * (i + 1), i % 2};
+        }
+        final int[] mSatzValues = {1, 0, 1, 4000, 4000, 0};
+        final int mRecord = 5;
+        mBus.controller(2).refuse('>', 1);
+        for (int mUpload = 0; mUpload < 2; mUpload++) {
+            final ShowUpload mShowUpload = new ShowUpload(mSerial, mShadow);
+            mShowUpload.addSatz(mRecord, mSatzValues, mLeinwandValues);
+            mShowUpload.run();
+            if (mUpload == 0) {
+                check("a refused store is not in the shadow", mShadow.get(2, mRecord, 'o') == null
+                        && mShadow.get(1, mRecord, 'o') != null);
+            }
+        }
+        for (int i = 0; i < mMotors; i++) {
+            final int mMotor = i + 1;
+            check("motor " + mMotor + " stored its record", mShadow.get(mMotor, mRecord, 'o') != null
+                    && mBus.controller(mMotor).recordValue(mRecord, 'o') == mLeinwandValues[i][0]
+                    && mBus.controller(mMotor).recordValue(mRecord, 's') == mLeinwandValues[i][1]);
+        }
+        mSerial.close();
+    }
+
+    static void check(String pName, boolean pPassed) {
+        if (!pPassed) {
+            System.out.println("### failed: " + pName);
+            mFailed++;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.hfkbremen.echo.app;
+
+
+import gnu.io.CommPortIdentifier;
+import gnu.io.PortInUseException;
+import gnu.io.SerialPort;
+import gnu.io.UnsupportedCommOperationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+
+
+/**
+ * the RS485 bus behind a serial port opened with RXTX.
+ */
+public class RXTXMotorBus
+        implements MotorBus {
+
+    public static final int BAUD = 115200;
+
+    public final SerialPort serialPort;
+
+    private final InputStream mIn;
+
+    private final OutputStream mOut;
+
+    private RXTXMotorBus(SerialPort pSerialPort, InputStream pInputStream, OutputStream pOutputStream) {
+        serialPort = pSerialPort;
+        mIn = pInputStream;
+        mOut = pOutputStream;
+    }
+
+    public InputStream inputStream() {
+        return mIn;
+    }
+
+    public OutputStream outputStream() {
+        return mOut;
+    }
+
+    public String name() {
+        return serialPort.getName();
+    }
+
+    public void close() {
+        serialPort.close(); // this seems to bail on my machine (d3)
+    }
+
+    public static RXTXMotorBus open(String defaultPort) {
+        boolean portFound = false;
+        final int mComPortIdentifier = CommPortIdentifier.PORT_SERIAL;
+        final Enumeration<?> portList = CommPortIdentifier.getPortIdentifiers();
+
+        while (portList.hasMoreElements()) {
+            final CommPortIdentifier portId = (CommPortIdentifier)portList.nextElement();
+            System.out.println("### Found port id: " + portId);
+
+            if (portId.getPortType() == mComPortIdentifier) {
+                System.out.println("### Found CommPortIdentifier.");
+
+                if (portId.getName().equals(defaultPort)) {
+                    System.out.println("### Found port " + defaultPort);
+
+                    SerialPort serialPort;
+                    InputStream inputStream = null;
+                    OutputStream outputStream = null;
+
+                    try {
+                        serialPort = (SerialPort)portId.open("AppMotorInterface", 5000);
+                    } catch (PortInUseException e) {
+                        System.err.println("### Port in use.");
+                        continue;
+                    }
+
+                    try {
+                        inputStream = serialPort.getInputStream();
+                        outputStream = serialPort.getOutputStream();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+
+                    try {
+                        serialPort.setSerialPortParams(BAUD,
+                                                       SerialPort.DATABITS_8,
+                                                       SerialPort.STOPBITS_1,
+                                                       SerialPort.PARITY_NONE);
+                    } catch (UnsupportedCommOperationException e) {
+                        e.printStackTrace();
+                    }
+
+
+                    try {
+                        serialPort.notifyOnOutputEmpty(true);
+                    } catch (Exception e) {
+                        System.err.println("### Error setting event notification");
+                        System.err.println(e.toString());
+                        System.exit(-1);
+                    }
+
+                    return new RXTXMotorBus(serialPort, inputStream, outputStream);
+                }
+            }
+        }
+
+        if (!portFound) {
+            System.err.println("### port " + defaultPort + " not found.");
+        }
+        return null;
+    }
+
+    private static String getPortTypeName(int portType) {
+        switch (portType) {
+            case CommPortIdentifier.PORT_I2C:
+                return "I2C";
+            case CommPortIdentifier.PORT_PARALLEL:
+                return "Parallel";
+            case CommPortIdentifier.PORT_RAW:
+                return "Raw";
+            case CommPortIdentifier.PORT_RS485:
+                return "RS485";
+            case CommPortIdentifier.PORT_SERIAL:
+                return "Serial";
+            default:
+                return "unknown type";
+        }
+    }
+
+    public static void listPorts() {
+        final Enumeration<?> portEnum = CommPortIdentifier.getPortIdentifiers();
+        while (portEnum.hasMoreElements()) {
+            final CommPortIdentifier portIdentifier = (CommPortIdentifier)portEnum.nextElement();
+            System.out.println(portIdentifier.getName() + " - " + getPortTypeName(portIdentifier.getPortType()));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * remembers which values every motor last stored in its record slots, keyed by motor id, satz id and
+ * command, e.g. '3.7.o' for the speed of motor 3 in satz 7. the copy is persisted next to the show data so
+ * an upload only has to send what changed since the last programming.
+ */
+public class RecordShadow {
+
+    private final File mFile;
+
+    private final HashMap<String, Integer> mValues;
+
+    public RecordShadow(File pFile) {
+        mFile = pFile;
+        mValues = new HashMap<String, Integer>();
+    }
+
+    public static RecordShadow load(File pFile) {
+        final RecordShadow mShadow = new RecordShadow(pFile);
+        if (!pFile.exists()) {
+            return mShadow;
+        }
+        final java.util.Properties mStored = new java.util.Properties();
+        InputStream mIn = null;
+        try {
+            mIn = new FileInputStream(pFile);
+            mStored.load(mIn);
+            for (Map.Entry<Object, Object> mEntry : mStored.entrySet()) {
+                mShadow.mValues.put((String)mEntry.getKey(), Integer.valueOf((String)mEntry.getValue()));
+            }
+        } catch (IOException e) {
+            System.err.println("### could not read record shadow " + pFile + ". uploading everything.");
+            mShadow.mValues.clear();
+        } catch (NumberFormatException e) {
+            System.err.println("### broken record shadow " + pFile + ". uploading everything.");
+            mShadow.mValues.clear();
+        } finally {
+            close(mIn);
+        }
+        return mShadow;
+    }
+
+    public synchronized void save() {
+        final java.util.Properties mStored = new java.util.Properties();
+        for (Map.Entry<String, Integer> mEntry : mValues.entrySet()) {
+            mStored.setProperty(mEntry.getKey(), mEntry.getValue().toString());
+        }
+        OutputStream mOut = null;
+        try {
+            mOut = new FileOutputStream(mFile);
+            mStored.store(mOut, "values last stored in the motor records");
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            close(mOut);
+        }
+    }
+
+    /**
+     * the value last stored or null if it is unknown.
+     */
+    public synchronized Integer get(int pMotor, int pSatzID, char pCommand) {
+        return mValues.get(key(pMotor, pSatzID, pCommand));
+    }
+
+    public synchronized void put(int pMotor, int pSatzID, char pCommand, int pValue) {
+        mValues.put(key(pMotor, pSatzID, pCommand), pValue);
+    }
+
+    /**
+     * forgets a value, e.g. when it is not known whether a store went through.
+     */
+    public synchronized void remove(int pMotor, int pSatzID, char pCommand) {
+        mValues.remove(key(pMotor, pSatzID, pCommand));
+    }
+
+    /**
+     * forgets everything so the next upload sends all records again.
+     */
+    public synchronized void clear() {
+        mValues.clear();
+    }
+
+    private static String key(int pMotor, int pSatzID, char pCommand) {
+        return pMotor + "." + pSatzID + "." + pCommand;
+    }
+
+    private static void close(java.io.Closeable pStream) {
+        if (pStream != null) {
+            try {
+                pStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
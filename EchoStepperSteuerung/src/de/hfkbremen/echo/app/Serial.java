@@ -3,146 +3,369 @@
 package de.hfkbremen.echo.app;
 
 
-import gnu.io.CommPortIdentifier;
-import gnu.io.PortInUseException;
-import gnu.io.SerialPort;
-import gnu.io.UnsupportedCommOperationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Enumeration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 
 public class Serial {
 
     public static boolean DEBUG = false;
 
-    public final SerialPort serialPort;
+    public final MotorBus bus;
 
     public final OutputStream out;
 
     public InputStream in; // should be done like with out ?
 
-    private Serial(SerialPort pSerialPort, OutputStream pOutputStream) {
-        serialPort = pSerialPort;
-        out = pOutputStream;
-        in = null;
-        try {
-            in = serialPort.getInputStream();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-//        try {
-//            OutputStream out = serialPort.getOutputStream();
-//        } catch (IOException ex) {
-//            ex.printStackTrace();
-//        }
+    private final BlockingQueue<MotorCommand> mQueue;
+
+    private final Thread mWriterThread;
+
+    private final Object mWriteLock = new Object();
+
+    /* a producer checks its generation and queues under this lock, an urgent command bumps it under it */
+    private final Object mQueueLock = new Object();
+
+    private volatile int mGeneration;
+
+    private volatile long mLastUrgentLatency;
+
+    /* no frame may follow a frame without an answer before this time, guarded by the write lock */
+    private long mQuietUntil;
+
+    /* commands waiting for their reply, per motor id */
+    private final ArrayList<Queue<CommandFuture>> mAwaitingReply;
+
+    private volatile int mPacing = Properties.SERIAL_PACING;
+
+    private volatile float mCommandsPerSecond;
+
+    /* commands waiting to be sent. a batch is a single element of the queue but counts every command */
+    private final AtomicInteger mPending = new AtomicInteger();
+
+    private Serial(MotorBus pBus) {
+        bus = pBus;
+        out = bus.outputStream();
+        in = bus.inputStream();
+        mQueue = new ArrayBlockingQueue<MotorCommand>(Properties.SERIAL_QUEUE_CAPACITY);
+        mAwaitingReply = createAwaitingReply();
+
+        final Thread mReaderThread = new Thread(new SerialReader(in), "SerialReader");
+        mReaderThread.setDaemon(true);
+        mReaderThread.start();
+
+        mWriterThread = new Thread(new SerialWriter(), "SerialWriter");
+        mWriterThread.setDaemon(true);
+        mWriterThread.start();
+    }
 
-        (new Thread(new SerialReader(in))).start();
-//        (new Thread(new SerialWriter(out))).start();
+    private static ArrayList<Queue<CommandFuture>> createAwaitingReply() {
+        final int mSize = MotorCommand.MAX_MOTOR_ID + 1;
+        final ArrayList<Queue<CommandFuture>> mAwaiting = new ArrayList<Queue<CommandFuture>>(mSize);
+        for (int i = 0; i < mSize; i++) {
+            mAwaiting.add(new ConcurrentLinkedQueue<CommandFuture>());
+        }
+        return mAwaiting;
     }
 
     public void close() {
-        serialPort.close(); // this seems to bail on my machine (d3)
+        mWriterThread.interrupt();
+        bus.close();
+        /* nobody sends them any more, their futures must not be waited for */
+        final ArrayList<MotorCommand> mDiscarded = new ArrayList<MotorCommand>();
+        mQueue.drainTo(mDiscarded);
+        for (MotorCommand mCommand : mDiscarded) {
+            discard(mCommand);
+        }
     }
 
-    public void write(final String pMessageString) {
-//        System.out.println("Writing \"" + pMessageString + "\" to " + serialPort.getName());
+    /**
+     * queues a command for the writer thread and returns immediately. commands are sent in order and paced
+     * by the writer, so callers must not delay between writes. if the queue is full the command is dropped,
+     * the returned future is then already done and {@link CommandFuture#isDiscarded()}. a frame to a motor id
+     * the bus can not address is rejected, see {@link MotorCommand#parse(CharSequence)}.
+     */
+    public CommandFuture write(final String pMessageString) {
+        return write(MotorCommand.parse(pMessageString));
+    }
 
-        try {
-            out.write(pMessageString.getBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * queues an encoded command like {@link #write(String)}. the command goes back to its pool once it was
+     * sent and must not be used by the caller afterwards.
+     */
+    public CommandFuture write(final MotorCommand pCommand) {
+        return write(pCommand, mGeneration);
+    }
+
+    /**
+     * queues a command for a producer that started in the given {@link #generation()}. once an urgent
+     * command was written the producer is stopped, the command is discarded instead of queued.
+     */
+    public CommandFuture write(final MotorCommand pCommand, final int pGeneration) {
+        final CommandFuture mFuture = new CommandFuture(pCommand.motor, pCommand.mnemonic);
+        pCommand.future = mFuture;
+        pCommand.generation = pGeneration;
+        pCommand.next = null;
+        mPending.incrementAndGet();
+        queue(pCommand, 1);
+        return mFuture;
+    }
+
+    /**
+     * queues a list of commands as one batch. the batch stays together in the queue, no other command is sent
+     * between its frames. the frames are still written and paced one by one, see {@link SerialWriter}.
+     * returns the futures in the order of the commands. if the queue is full the whole batch is dropped and
+     * every future is {@link CommandFuture#isDiscarded()}.
+     */
+    public CommandFuture[] writeAll(final List<MotorCommand> pCommands) {
+        return writeAll(pCommands, mGeneration);
+    }
+
+    /**
+     * queues a batch for a producer that started in the given {@link #generation()}, see
+     * {@link #write(MotorCommand, int)}.
+     */
+    public CommandFuture[] writeAll(final List<MotorCommand> pCommands, final int pGeneration) {
+        return writeAll(pCommands, pGeneration, false);
+    }
+
+    /**
+     * queues a batch of background traffic like the polls of the {@link MotorPoller}. it is sent like any
+     * other batch but left out of {@link #commandsPerSecond()} and the burst report, which are about the
+     * traffic of the show.
+     */
+    public CommandFuture[] writeBackground(final List<MotorCommand> pCommands) {
+        return writeAll(pCommands, mGeneration, true);
+    }
+
+    private CommandFuture[] writeAll(final List<MotorCommand> pCommands, final int pGeneration,
+                                     final boolean pBackground) {
+        final CommandFuture[] mFutures = new CommandFuture[pCommands.size()];
+        if (mFutures.length == 0) {
+            return mFutures;
         }
+        MotorCommand mPrevious = null;
+        for (int i = 0; i < mFutures.length; i++) {
+            final MotorCommand mCommand = pCommands.get(i);
+            mFutures[i] = new CommandFuture(mCommand.motor, mCommand.mnemonic);
+            mCommand.future = mFutures[i];
+            mCommand.generation = pGeneration;
+            mCommand.background = pBackground;
+            mCommand.next = null;
+            if (mPrevious != null) {
+                mPrevious.next = mCommand;
+            }
+            mPrevious = mCommand;
+        }
+        mPending.addAndGet(mFutures.length);
+        queue(pCommands.get(0), mFutures.length);
+        return mFutures;
     }
 
-    public static Serial open(String defaultPort) {
-        boolean portFound = false;
-        final int mComPortIdentifier = CommPortIdentifier.PORT_SERIAL;
-        final Enumeration portList = CommPortIdentifier.getPortIdentifiers();
-        final int BAUD = 115200;
+    /**
+     * gives up the commands of a batch from {@link #writeAll(List)} that were not sent yet, their futures
+     * are discarded.
+     */
+    public void cancel(CommandFuture[] pFutures) {
+        synchronized (mWriteLock) {
+            for (CommandFuture mFuture : pFutures) {
+                if (!mFuture.isSent()) {
+                    mFuture.discard();
+                }
+            }
+        }
+    }
 
-        while (portList.hasMoreElements()) {
-            final CommPortIdentifier portId = (CommPortIdentifier)portList.nextElement();
-            System.out.println("### Found port id: " + portId);
+    /**
+     * the generation producers like the cue engine take when they start. it changes with every urgent
+     * command, so a producer that was stopped by it can not send anything until it is started again.
+     */
+    public int generation() {
+        return mGeneration;
+    }
 
-            if (portId.getPortType() == mComPortIdentifier) {
-                System.out.println("### Found CommPortIdentifier.");
+    private void queue(MotorCommand pFirst, int pCount) {
+        synchronized (mQueueLock) {
+            if (pFirst.generation != mGeneration) {
+                if (DEBUG) {
+                    System.out.println("### stopped producer, discarding " + pCount + " commands");
+                }
+                discard(pFirst);
+            } else if (!mQueue.offer(pFirst)) {
+                System.err.println("### serial queue full. dropping " + pCount + " commands");
+                discard(pFirst);
+            }
+        }
+    }
 
-                if (portId.getName().equals(defaultPort)) {
-                    System.out.println("### Found port " + defaultPort);
+    public CommandFuture writeUrgent(final String pMessageString) {
+        return writeUrgent(MotorCommand.parse(pMessageString));
+    }
 
-                    SerialPort serialPort;
-                    OutputStream outputStream = null;
+    /**
+     * sends a stop or abort command ahead of all queued traffic. every frame that is still waiting in the
+     * queue is discarded, the command is written on the calling thread and only waits for a frame that is
+     * already on the wire or the gap after a broadcast. the {@link #generation()} changes, producers that are still running with the old
+     * one can not queue anything afterwards.
+     */
+    public CommandFuture writeUrgent(final MotorCommand pCommand) {
+        final long mStart = System.nanoTime();
+        final CommandFuture mFuture = new CommandFuture(pCommand.motor, pCommand.mnemonic);
+        pCommand.future = mFuture;
+        final ArrayList<MotorCommand> mDiscarded = new ArrayList<MotorCommand>();
+        synchronized (mQueueLock) {
+            synchronized (mWriteLock) {
+                mGeneration++;
+                mQueue.drainTo(mDiscarded);
+                /* the controllers would miss the command while they still process a broadcast */
+                final long mQuiet = mQuietUntil - System.nanoTime();
+                if (mQuiet > 0) {
+                    LockSupport.parkNanos(mQuiet);
+                }
+                send(pCommand);
+            }
+        }
+        mLastUrgentLatency = System.nanoTime() - mStart;
+        for (MotorCommand mCommand : mDiscarded) {
+            discard(mCommand);
+        }
+        if (DEBUG) {
+            System.out.println("### urgent " + pCommand + " sent after " + lastUrgentLatencyMillis() + "ms");
+        }
+        pCommand.release();
+        return mFuture;
+    }
 
-                    try {
-                        serialPort = (SerialPort)portId.open("AppMotorInterface", 5000);
-                    } catch (PortInUseException e) {
-                        System.err.println("### Port in use.");
-                        continue;
-                    }
+    /**
+     * time in milliseconds the last urgent command took from the call to leaving the output stream.
+     */
+    public float lastUrgentLatencyMillis() {
+        return mLastUrgentLatency / 1000000.0f;
+    }
 
-                    try {
-                        outputStream = serialPort.getOutputStream();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
+    /**
+     * selects {@link Properties#SERIAL_PACING_FIXED} or {@link Properties#SERIAL_PACING_ACK}.
+     */
+    public void setPacing(int pPacing) {
+        mPacing = pPacing;
+    }
 
-                    try {
-                        serialPort.setSerialPortParams(BAUD,
-                                                       SerialPort.DATABITS_8,
-                                                       SerialPort.STOPBITS_1,
-                                                       SerialPort.PARITY_NONE);
-                    } catch (UnsupportedCommOperationException e) {
-                        e.printStackTrace();
-                    }
+    public int pacing() {
+        return mPacing;
+    }
 
+    /**
+     * throughput of the last burst of commands, measured from the first frame until the queue ran empty.
+     * background traffic is not counted.
+     */
+    public float commandsPerSecond() {
+        return mCommandsPerSecond;
+    }
 
-                    try {
-                        serialPort.notifyOnOutputEmpty(true);
-                    } catch (Exception e) {
-                        System.err.println("### Error setting event notification");
-                        System.err.println(e.toString());
-                        System.exit(-1);
-                    }
+    /**
+     * number of commands waiting to be sent.
+     */
+    public int pending() {
+        return mPending.get();
+    }
 
-                    return new Serial(serialPort, outputStream);
-                }
+    /* has to be called with the write lock held */
+    private void send(MotorCommand pCommand) {
+        final CommandFuture mFuture = pCommand.future;
+        if (mFuture.expectsReply()) {
+            expireAwaitingReplies(mFuture.motor());
+            mAwaitingReply.get(mFuture.motor()).add(mFuture);
+        }
+        try {
+            pCommand.writeTo(out);
+            out.flush();
+            if (!mFuture.expectsReply()) {
+                mQuietUntil = System.nanoTime() + Properties.DELAY_BETWEEN_SERIAL_WRITES * 1000000L;
             }
+            mFuture.sent();
+        } catch (IOException e) {
+            e.printStackTrace();
+            mFuture.discard();
         }
+    }
 
-        if (!portFound) {
-            System.err.println("### port " + defaultPort + " not found.");
+    /* discards a command and the rest of its batch */
+    private void discard(MotorCommand pCommand) {
+        MotorCommand mCommand = pCommand;
+        while (mCommand != null) {
+            final MotorCommand mNext = mCommand.next;
+            mCommand.future.discard();
+            mCommand.release();
+            mPending.decrementAndGet();
+            mCommand = mNext;
         }
-        return null;
     }
 
-    private static String getPortTypeName(int portType) {
-        switch (portType) {
-            case CommPortIdentifier.PORT_I2C:
-                return "I2C";
-            case CommPortIdentifier.PORT_PARALLEL:
-                return "Parallel";
-            case CommPortIdentifier.PORT_RAW:
-                return "Raw";
-            case CommPortIdentifier.PORT_RS485:
-                return "RS485";
-            case CommPortIdentifier.PORT_SERIAL:
-                return "Serial";
-            default:
-                return "unknown type";
+    private void expireAwaitingReplies(int pMotor) {
+        final long mTimeout = Properties.SERIAL_REPLY_TIMEOUT * 1000000L;
+        final Queue<CommandFuture> mAwaiting = mAwaitingReply.get(pMotor);
+        CommandFuture mOldest;
+        while ((mOldest = mAwaiting.peek()) != null
+                && (mOldest.isDone() || System.nanoTime() - mOldest.sentTime() > mTimeout)) {
+            mAwaiting.remove(mOldest);
+            mOldest.discard();
         }
     }
 
-    public static void listPorts() {
-        Enumeration<CommPortIdentifier> portEnum = CommPortIdentifier.getPortIdentifiers();
-        while (portEnum.hasMoreElements()) {
-            CommPortIdentifier portIdentifier = portEnum.nextElement();
-            System.out.println(portIdentifier.getName() + " - " + getPortTypeName(portIdentifier.getPortType()));
+    private void handleReply(String pReply) {
+        final int mMotor = MotorCommand.parseMotor(pReply, 0);
+        final int mMnemonic = MotorCommand.parseMnemonic(pReply, 0);
+        if (mMotor > 0 && mMotor < mAwaitingReply.size() && mMnemonic >= 0) {
+            /* a controller answers in order, but an earlier command may have gone unanswered */
+            for (CommandFuture mFuture : mAwaitingReply.get(mMotor)) {
+                if (mFuture.mnemonic() == mMnemonic && mAwaitingReply.get(mMotor).remove(mFuture)) {
+                    mFuture.answer(pReply);
+                    return;
+                }
+            }
+        }
+        if (DEBUG) {
+            System.out.println("### unmatched reply: " + pReply);
+        }
+    }
+
+    /**
+     * opens the bus with the given name. 'sim' opens a {@link SimulatedMotorBus}, a name starting with
+     * 'file:' a {@link DeviceMotorBus}, everything else is treated as a serial port name for RXTX.
+     */
+    public static Serial open(String defaultPort) {
+        final MotorBus mBus;
+        if (defaultPort.equals(SimulatedMotorBus.NAME)) {
+            mBus = new SimulatedMotorBus(Properties.NUMBER_OF_LEINWAENDE);
+        } else if (defaultPort.startsWith(DeviceMotorBus.PREFIX)) {
+            mBus = DeviceMotorBus.open(defaultPort.substring(DeviceMotorBus.PREFIX.length()));
+        } else {
+            mBus = RXTXMotorBus.open(defaultPort);
         }
+        return mBus == null ? null : open(mBus);
+    }
+
+    public static Serial open(MotorBus pBus) {
+        return new Serial(pBus);
+    }
+
+    public static void listPorts() {
+        RXTXMotorBus.listPorts();
     }
 
-    public static class SerialReader
+    /**
+     * splits the reply stream of the controllers on '\r' and hands every reply to the command it answers.
+     */
+    private class SerialReader
             implements Runnable {
 
         InputStream in;
@@ -152,13 +375,25 @@ public class Serial {
         }
 
         public void run() {
-            byte[] buffer = new byte[1024];
+            final byte[] buffer = new byte[1024];
+            final StringBuilder mReply = new StringBuilder();
             int len;
             try {
                 while ((len = this.in.read(buffer)) > -1) {
-                    if (DEBUG) {
-                        // todo this might not be perfect at all ...
-                        System.out.print(new String(buffer, 0, len));
+                    for (int i = 0; i < len; i++) {
+                        final char c = (char)(buffer[i] & 0xFF);
+                        if (c == '\r') {
+                            /* some RS485 adapters echo our own frames */
+                            if (mReply.length() > 0 && mReply.charAt(0) != '#') {
+                                if (DEBUG) {
+                                    System.out.println("< " + mReply);
+                                }
+                                handleReply(mReply.toString());
+                            }
+                            mReply.setLength(0);
+                        } else if (c != '\n') {
+                            mReply.append(c);
+                        }
                     }
                 }
             } catch (IOException e) {
@@ -167,24 +402,174 @@ public class Serial {
         }
     }
 
-    public static class SerialWriter
+    /**
+     * sends the queued frames one after another. in {@link Properties#SERIAL_PACING_FIXED} mode every frame
+     * is followed by a fixed gap. in {@link Properties#SERIAL_PACING_ACK} mode the next frame goes out as soon
+     * as the controller has answered the previous one or after a timeout learned per command. up to
+     * {@link Properties#SERIAL_WINDOW} frames to different motors may wait for their answer at the same time.
+     * a frame without an answer, e.g. a broadcast, is always followed by the gap, the controllers need it to
+     * process the frame. every frame is a write of its own, with a window of 1 no two frames may share one.
+     */
+    private class SerialWriter
             implements Runnable {
 
-        OutputStream out;
+        private final ArrayList<CommandFuture> mInFlight = new ArrayList<CommandFuture>();
 
-        public SerialWriter(OutputStream out) {
-            this.out = out;
-        }
+        /* average ack latency in milliseconds per mnemonic, 0 if nothing was learned yet */
+        private final float[] mAckLatency = new float[MotorCommand.NUMBER_OF_MNEMONICS];
+
+        private int mBurstFrames;
+
+        private long mBurstStart;
 
         public void run() {
             try {
-                int c;
-                while ((c = System.in.read()) > -1) {
-                    this.out.write(c);
+                while (true) {
+                    MotorCommand mCommand = mQueue.poll();
+                    if (mCommand == null) {
+                        endBurst();
+                        mCommand = mQueue.take();
+                    }
+                    while (mCommand != null) {
+                        mCommand = sendFrame(mCommand);
+                    }
+                }
+            } catch (InterruptedException e) {
+                /* serial was closed */
+            }
+        }
+
+        /**
+         * sends a command and returns the next command of its batch.
+         */
+        private MotorCommand sendFrame(MotorCommand pCommand) throws InterruptedException {
+            final boolean mAckPacing = mPacing == Properties.SERIAL_PACING_ACK;
+            if (mAckPacing) {
+                awaitWindow(pCommand.future);
+            }
+            while (true) {
+                final long mQuiet;
+                synchronized (mWriteLock) {
+                    /* frames queued before an urgent command are stale, so is the rest of their batch. the rest
+                     * of a cancelled batch is given up as well */
+                    if (pCommand.generation != mGeneration || pCommand.future.isDone()) {
+                        discard(pCommand);
+                        return null;
+                    }
+                    mQuiet = mQuietUntil - System.nanoTime();
+                    if (mQuiet <= 0) {
+                        try {
+                            send(pCommand);
+                        } catch (RuntimeException e) {
+                            /* a frame that can not be sent fails its batch, not the writer */
+                            e.printStackTrace();
+                            discard(pCommand);
+                            return null;
+                        }
+                        break;
+                    }
+                }
+                Thread.sleep(mQuiet / 1000000L, (int)(mQuiet % 1000000L));
+            }
+            final boolean mAnswered = mAckPacing && pCommand.future.expectsReply();
+            final MotorCommand mNext = pCommand.next;
+            if (mAnswered) {
+                mInFlight.add(pCommand.future);
+            }
+            if (!pCommand.background) {
+                if (mBurstFrames == 0) {
+                    mBurstStart = System.nanoTime();
+                }
+                mBurstFrames++;
+            }
+            pCommand.release();
+            mPending.decrementAndGet();
+            if (!mAnswered) {
+                /* the controllers on the RS485 bus need a gap between two frames */
+                Thread.sleep(Properties.DELAY_BETWEEN_SERIAL_WRITES);
+            }
+            return mNext;
+        }
+
+        private void awaitWindow(CommandFuture pNext) throws InterruptedException {
+            while (true) {
+                retireAnswered();
+                if (!isBlocked(pNext)) {
+                    return;
+                }
+                final CommandFuture mOldest = mInFlight.get(0);
+                final long mRemaining = replyTimeout(mOldest) - (System.nanoTime() - mOldest.sentTime());
+                if (mRemaining <= 0 || !mOldest.awaitNanos(mRemaining)) {
+                    if (!mOldest.isDone() && DEBUG) {
+                        System.out.println("### no reply to " + mOldest.command());
+                    }
+                    /* stop waiting for it, a late answer is still matched until SERIAL_REPLY_TIMEOUT */
+                    mInFlight.remove(0);
+                }
+            }
+        }
+
+        private boolean isBlocked(CommandFuture pNext) {
+            if (mInFlight.isEmpty()) {
+                return false;
+            }
+            /* broadcasts address every controller, null waits for all answers */
+            if (pNext == null || !pNext.expectsReply() || mInFlight.size() >= Properties.SERIAL_WINDOW) {
+                return true;
+            }
+            for (int i = 0; i < mInFlight.size(); i++) {
+                if (mInFlight.get(i).motor() == pNext.motor()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void retireAnswered() {
+            for (int i = mInFlight.size() - 1; i >= 0; i--) {
+                final CommandFuture mFuture = mInFlight.get(i);
+                if (mFuture.isDone()) {
+                    if (mFuture.isAnswered()) {
+                        learn(mFuture);
+                    }
+                    mInFlight.remove(i);
+                }
+            }
+        }
+
+        private void learn(CommandFuture pFuture) {
+            final float mLatency = Math.max(pFuture.latencyNanos() / 1000000.0f, Float.MIN_VALUE);
+            final float mAverage = mAckLatency[pFuture.mnemonic()];
+            mAckLatency[pFuture.mnemonic()] = mAverage == 0 ? mLatency : mAverage * 0.8f + mLatency * 0.2f;
+        }
+
+        private long replyTimeout(CommandFuture pFuture) {
+            final float mAverage = mAckLatency[pFuture.mnemonic()];
+            if (mAverage == 0) {
+                /* nothing learned yet, behave like fixed pacing */
+                return Properties.DELAY_BETWEEN_SERIAL_WRITES * 1000000L;
+            }
+            final float mTimeout = Math.min(Math.max(mAverage * 3, Properties.SERIAL_MIN_REPLY_TIMEOUT),
+                                            Properties.SERIAL_REPLY_TIMEOUT);
+            return (long)(mTimeout * 1000000L);
+        }
+
+        private void endBurst() throws InterruptedException {
+            if (mPacing == Properties.SERIAL_PACING_ACK) {
+                while (!mInFlight.isEmpty()) {
+                    awaitWindow(null);
+                }
+            }
+            if (mBurstFrames > 1) {
+                final float mSeconds = (System.nanoTime() - mBurstStart) / 1000000000.0f;
+                mCommandsPerSecond = mBurstFrames / mSeconds;
+                if (mBurstFrames >= Properties.SERIAL_BURST_REPORT) {
+                    System.out.println("### sent " + mBurstFrames + " commands in " + mSeconds + "s ("
+                            + mCommandsPerSecond + " commands/s, "
+                            + (mPacing == Properties.SERIAL_PACING_ACK ? "ack" : "fixed") + " pacing)");
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
             }
+            mBurstFrames = 0;
         }
     }
 
@@ -0,0 +1,232 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * streams target positions to the motors at a fixed control rate of {@link Properties#SETPOINT_RATE}. a new
+ * target only replaces the value of its motor, so however often a slider is dragged between two ticks only
+ * the latest position of every motor goes out. a tick is skipped while more than
+ * {@link Properties#SETPOINT_MAX_PENDING} commands are waiting in the serial queue, the values stay and are
+ * sent with the next tick.
+ * <p>
+ * the motors are switched to absolute positioning ('p2') when streaming starts. every tick sends 's' to the
+ * motors whose target changed and then starts them with 'A'. a motor that is still moving refuses the start,
+ * its target is sent again with the next tick.
+ * <p>
+ * the positioning mode and target of every motor are read before streaming starts and written back when it
+ * is stopped, so a satz that was loaded before runs as it was loaded. the streamer writes in the
+ * {@link Serial#generation()} it was started in, after an emergency stop it sends nothing.
+ */
+public class SetpointStreamer
+        implements Runnable {
+
+    private static final int ABSOLUTE_POSITIONING = 2;
+
+    private final Serial mSerial;
+
+    private final int mNumberOfMotors;
+
+    /* latest target per motor, index is motor id - 1 */
+    private final AtomicIntegerArray mTargets;
+
+    private final AtomicIntegerArray mChanged;
+
+    private final CommandFuture[] mStarts;
+
+    private final ArrayList<MotorCommand> mCommands;
+
+    /* positioning mode and target of every motor before streaming, written by the streamer thread and read
+     * once it was joined */
+    private final CommandFuture[] mSavedModes;
+
+    private final CommandFuture[] mSavedTargets;
+
+    private volatile Thread mThread;
+
+    private int mGeneration;
+
+    private boolean mRestore;
+
+    private int mSkippedTicks;
+
+    public SetpointStreamer(Serial pSerial, int pNumberOfMotors) {
+        mSerial = pSerial;
+        mNumberOfMotors = pNumberOfMotors;
+        mTargets = new AtomicIntegerArray(pNumberOfMotors);
+        mChanged = new AtomicIntegerArray(pNumberOfMotors);
+        mStarts = new CommandFuture[pNumberOfMotors];
+        mCommands = new ArrayList<MotorCommand>();
+        mSavedModes = new CommandFuture[pNumberOfMotors];
+        mSavedTargets = new CommandFuture[pNumberOfMotors];
+    }
+
+    /**
+     * sets the target position of a motor. can be called from any thread at any rate.
+     */
+    public void set(int pMotor, int pSteps) {
+        mTargets.set(pMotor - 1, pSteps);
+        mChanged.set(pMotor - 1, 1);
+    }
+
+    public boolean isRunning() {
+        return mThread != null;
+    }
+
+    /**
+     * switches the motors to absolute positioning and starts streaming. all current targets are sent with
+     * the first tick.
+     */
+    public synchronized void start() {
+        if (mThread != null) {
+            return;
+        }
+        restore();
+        mGeneration = mSerial.generation();
+        mRestore = true;
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            mChanged.set(i, 1);
+            mStarts[i] = null;
+            mSavedModes[i] = null;
+            mSavedTargets[i] = null;
+        }
+        mThread = new Thread(this, "SetpointStreamer");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * stops streaming and gives the motors back the positioning mode and target they had before.
+     */
+    public synchronized void stop() {
+        halt();
+        restore();
+    }
+
+    /**
+     * stops streaming and returns once the streamer thread ended, without writing anything. an emergency stop
+     * sends its urgent command first, which discards everything the streamer still queues, and calls
+     * {@link #stop()} after it.
+     */
+    public synchronized void halt() {
+        final Thread mCurrent = mThread;
+        if (mCurrent == null) {
+            return;
+        }
+        mThread = null;
+        mCurrent.interrupt();
+        try {
+            mCurrent.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void run() {
+        save();
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'p', ABSOLUTE_POSITIONING), mGeneration);
+        final long mPeriod = 1000000000L / Properties.SETPOINT_RATE;
+        long mNextTick = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            tick();
+            mNextTick += mPeriod;
+            long mRemaining;
+            while ((mRemaining = mNextTick - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(mRemaining);
+            }
+            /* do not try to catch up on ticks that were missed */
+            mNextTick = Math.max(mNextTick, System.nanoTime() - mPeriod);
+        }
+    }
+
+    private void save() {
+        mCommands.clear();
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            mCommands.add(MotorCommand.read(i + 1, 'p'));
+            mCommands.add(MotorCommand.read(i + 1, 's'));
+        }
+        final CommandFuture[] mFutures = mSerial.writeAll(mCommands, mGeneration);
+        mCommands.clear();
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            mSavedModes[i] = mFutures[i * 2];
+            mSavedTargets[i] = mFutures[i * 2 + 1];
+            mSavedModes[i].awaitSettled(Properties.SERIAL_REPLY_TIMEOUT);
+            mSavedTargets[i].awaitSettled(Properties.SERIAL_REPLY_TIMEOUT);
+        }
+    }
+
+    /* has to be called with the streamer thread joined */
+    private void restore() {
+        if (!mRestore) {
+            return;
+        }
+        mRestore = false;
+        mCommands.clear();
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            if (isRead(mSavedModes[i]) && isRead(mSavedTargets[i])) {
+                mCommands.add(MotorCommand.set(i + 1, 'p', mSavedModes[i].value()));
+                mCommands.add(MotorCommand.set(i + 1, 's', mSavedTargets[i].value()));
+            } else if (mSavedModes[i] != null) {
+                System.out.println("### positioning mode of motor " + (i + 1) + " is unknown, load a satz again");
+            }
+        }
+        mSerial.writeAll(mCommands);
+        mCommands.clear();
+    }
+
+    private static boolean isRead(CommandFuture pFuture) {
+        return pFuture != null && pFuture.isAnswered() && !pFuture.isError();
+    }
+
+    private void tick() {
+        if (mSerial.pending() > Properties.SETPOINT_MAX_PENDING) {
+            mSkippedTicks++;
+            return;
+        }
+        if (mSkippedTicks > 0 && Serial.DEBUG) {
+            System.out.println("### setpoints held back for " + mSkippedTicks + " ticks");
+        }
+        mSkippedTicks = 0;
+
+        /* a start that was refused because the motor was still moving is repeated, one that was never
+         * answered is given up */
+        final long mTimeout = Properties.SERIAL_REPLY_TIMEOUT * 1000000L;
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            final CommandFuture mStart = mStarts[i];
+            if (mStart == null) {
+                continue;
+            }
+            if (mStart.isDone()) {
+                if (mStart.isError()) {
+                    mChanged.set(i, 1);
+                }
+                mStarts[i] = null;
+            } else if (mStart.isSent() && System.nanoTime() - mStart.sentTime() > mTimeout) {
+                mStarts[i] = null;
+            }
+        }
+
+        mCommands.clear();
+        for (int i = 0; i < mNumberOfMotors; i++) {
+            if (mStarts[i] == null && mChanged.getAndSet(i, 0) == 1) {
+                mCommands.add(MotorCommand.set(i + 1, 's', mTargets.get(i)));
+                /* a broadcast start would not tell which motor refused it */
+                mCommands.add(MotorCommand.send(i + 1, 'A'));
+            }
+        }
+        if (mCommands.isEmpty()) {
+            return;
+        }
+        final CommandFuture[] mFutures = mSerial.writeAll(mCommands, mGeneration);
+        for (int i = 1; i < mFutures.length; i += 2) {
+            mStarts[mFutures[i].motor() - 1] = mFutures[i];
+        }
+        mCommands.clear();
+    }
+}
@@ -0,0 +1,284 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+
+/**
+ * compiles a show like inbetween.xml into a {@link ShowFile}. the show is checked completely before anything
+ * is written: every satz needs all its attributes with values the controllers accept, a satz id that is a
+ * free record slot below the staging records and exactly {@link Properties#NUMBER_OF_LEINWAENDE}
+ * leinwaende. all errors are reported at once. the optional satz attribute dauer_ms gives the time until the
+ * {@link CueEngine} starts the next satz.
+ * <pre>java de.hfkbremen.echo.app.ShowCompiler data/inbetween.xml data/inbetween.show</pre>
+ */
+public class ShowCompiler {
+
+    /* allowed values, see the parameter tables in the programming manual */
+    private static final int MAX_POSITION = 100000000;
+
+    private static final Range SATZ_ID = new Range("satzID_y", 1, Properties.STAGING_RECORD_A - 1);
+
+    private static final Range DREHMODUS = new Range("drehmodus_p", 1, 17);
+
+    private static final Range RICHTUNGSWECHSEL = new Range("richtungswechsel_t", 0, 1);
+
+    private static final Range WIEDERHOLUNGEN = new Range("wiederholungen_W", 0, 254);
+
+    private static final Range STARTRAMPE = new Range("startrampe_b", 1, 65535);
+
+    private static final Range BREMSRAMPE = new Range("bremsrampe_B", 0, 65535);
+
+    private static final Range PAUSE = new Range("pause_P", 0, 65535);
+
+    private static final Range DAUER = new Range("dauer_ms", 0, 60 * 60 * 1000);
+
+    private static final Range SPEED = new Range("speed_o", 1, 1000000);
+
+    private static final Range POSITION = new Range("position_s", -MAX_POSITION, MAX_POSITION);
+
+    private static final Range DREHRICHTUNG = new Range("drehrichtung_d", 0, 1);
+
+    private final String mName;
+
+    private final List<String> mErrors;
+
+    private ShowCompiler(String pName) {
+        mName = pName;
+        mErrors = new ArrayList<String>();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("usage: ShowCompiler <show.xml> <show.show>");
+            System.exit(2);
+        }
+        try {
+            final ShowFile mShow = compile(new File(args[0]));
+            mShow.write(new File(args[1]));
+            System.out.println("### compiled " + mShow.numberOfAkte() + " akte with " + mShow.numberOfSaetze()
+                    + " saetze to " + args[1]);
+        } catch (ShowFormatException e) {
+            System.err.println("### " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    public static ShowFile compile(File pFile) throws IOException, ShowFormatException {
+        final StringBuilder mText = new StringBuilder();
+        final Reader mReader = new InputStreamReader(new FileInputStream(pFile), "UTF-8");
+        try {
+            final char[] mBuffer = new char[4096];
+            int mLength;
+            while ((mLength = mReader.read(mBuffer)) > -1) {
+                mText.append(mBuffer, 0, mLength);
+            }
+        } finally {
+            mReader.close();
+        }
+        return compile(pFile.getName(), mText.toString());
+    }
+
+    public static ShowFile compile(String pName, String pXML) throws ShowFormatException {
+        final Element mPerformance;
+        try {
+            /* processing's XMLElement accepted whitespace in front of the declaration, inbetween.xml has some */
+            final InputSource mSource = new InputSource(new StringReader(pXML.trim()));
+            final DocumentBuilder mBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            /* errors are reported with the exception, not on the console */
+            mBuilder.setErrorHandler(new DefaultHandler());
+            mPerformance = mBuilder.parse(mSource).getDocumentElement();
+        } catch (SAXException e) {
+            throw new ShowFormatException(pName + " is not well formed: " + e.getMessage());
+        } catch (ParserConfigurationException e) {
+            throw new ShowFormatException(e.getMessage());
+        } catch (IOException e) {
+            throw new ShowFormatException(e.getMessage());
+        }
+        return new ShowCompiler(pName).compile(mPerformance);
+    }
+
+    private ShowFile compile(Element pPerformance) throws ShowFormatException {
+        if (!pPerformance.getTagName().equals("performance")) {
+            error("root element is <" + pPerformance.getTagName() + ">, expected <performance>");
+        }
+        final List<Element> mAkte = children(pPerformance, "akt", "performance");
+        int mNumberOfSaetze = 0;
+        for (Element mAkt : mAkte) {
+            mNumberOfSaetze += children(mAkt, "satz", null).size();
+        }
+        if (mAkte.isEmpty()) {
+            error("the show has no akt");
+        }
+
+        final ShowFile mShow = new ShowFile(Properties.NUMBER_OF_LEINWAENDE, mAkte.size(), mNumberOfSaetze);
+        final HashMap<Integer, String> mUsedRecords = new HashMap<Integer, String>();
+        int mSatz = 0;
+        for (int i = 0; i < mAkte.size(); i++) {
+            final Element mAkt = mAkte.get(i);
+            final String mAktPath = "akt " + (i + 1);
+            mShow.aktName[i] = text(mAkt, "name", mAktPath);
+            mShow.aktFirstSatz[i] = mSatz;
+            final List<Element> mSaetze = children(mAkt, "satz", mAktPath);
+            mShow.aktSaetze[i] = mSaetze.size();
+            for (int j = 0; j < mSaetze.size(); j++) {
+                final Element mSatzElement = mSaetze.get(j);
+                final String mPath = mAktPath + " '" + mShow.aktName[i] + "', satz " + (j + 1);
+                mShow.satzName[mSatz] = text(mSatzElement, "name", mPath);
+                mShow.satzID[mSatz] = number(mSatzElement, SATZ_ID, mPath);
+                mShow.drehmodus[mSatz] = number(mSatzElement, DREHMODUS, mPath);
+                mShow.richtungswechsel[mSatz] = number(mSatzElement, RICHTUNGSWECHSEL, mPath);
+                mShow.wiederholungen[mSatz] = number(mSatzElement, WIEDERHOLUNGEN, mPath);
+                mShow.startrampe[mSatz] = number(mSatzElement, STARTRAMPE, mPath);
+                mShow.bremsrampe[mSatz] = number(mSatzElement, BREMSRAMPE, mPath);
+                mShow.pause[mSatz] = number(mSatzElement, PAUSE, mPath);
+                /* optional, without it the cue engine waits for the motors */
+                mShow.dauer[mSatz] = mSatzElement.hasAttribute(DAUER.attribute)
+                                     ? number(mSatzElement, DAUER, mPath) : 0;
+
+                /* two saetze in the same record slot would overwrite each other on the controllers */
+                final String mOther = mUsedRecords.put(mShow.satzID[mSatz], mPath);
+                if (mOther != null) {
+                    error(mPath + ": satzID_y " + mShow.satzID[mSatz] + " is already used by " + mOther);
+                }
+
+                final List<Element> mLeinwaende = children(mSatzElement, "leinwand", mPath);
+                if (mLeinwaende.size() != Properties.NUMBER_OF_LEINWAENDE) {
+                    error(mPath + ": has " + mLeinwaende.size() + " leinwaende, expected "
+                            + Properties.NUMBER_OF_LEINWAENDE);
+                }
+                for (int x = 0; x < Math.min(mLeinwaende.size(), Properties.NUMBER_OF_LEINWAENDE); x++) {
+                    final Element mLeinwand = mLeinwaende.get(x);
+                    final String mLeinwandPath = mPath + ", leinwand " + (x + 1);
+                    final int mIndex = mShow.index(mSatz, x);
+                    mShow.speed[mIndex] = number(mLeinwand, SPEED, mLeinwandPath);
+                    mShow.position[mIndex] = number(mLeinwand, POSITION, mLeinwandPath);
+                    mShow.drehrichtung[mIndex] = number(mLeinwand, DREHRICHTUNG, mLeinwandPath);
+                }
+                mSatz++;
+            }
+        }
+        if (!mErrors.isEmpty()) {
+            throw new ShowFormatException(mName, mErrors);
+        }
+        return mShow;
+    }
+
+    /**
+     * checks the values of a compiled show with the rules it was compiled with, a show file that was written
+     * wrong or by an older compiler must not reach the motors. returns the errors found.
+     */
+    static List<String> check(ShowFile pShow) {
+        final ShowCompiler mCompiler = new ShowCompiler(null);
+        final HashMap<Integer, String> mUsedRecords = new HashMap<Integer, String>();
+        for (int mSatz = 0; mSatz < pShow.numberOfSaetze(); mSatz++) {
+            final String mPath = "satz " + (mSatz + 1) + " '" + pShow.satzName[mSatz] + "'";
+            mCompiler.check(SATZ_ID, pShow.satzID[mSatz], mPath);
+            mCompiler.check(DREHMODUS, pShow.drehmodus[mSatz], mPath);
+            mCompiler.check(RICHTUNGSWECHSEL, pShow.richtungswechsel[mSatz], mPath);
+            mCompiler.check(WIEDERHOLUNGEN, pShow.wiederholungen[mSatz], mPath);
+            mCompiler.check(STARTRAMPE, pShow.startrampe[mSatz], mPath);
+            mCompiler.check(BREMSRAMPE, pShow.bremsrampe[mSatz], mPath);
+            mCompiler.check(PAUSE, pShow.pause[mSatz], mPath);
+            mCompiler.check(DAUER, pShow.dauer[mSatz], mPath);
+            final String mOther = mUsedRecords.put(pShow.satzID[mSatz], mPath);
+            if (mOther != null) {
+                mCompiler.error(mPath + ": satzID_y " + pShow.satzID[mSatz] + " is already used by " + mOther);
+            }
+            for (int x = 0; x < pShow.numberOfMotors; x++) {
+                final String mLeinwandPath = mPath + ", leinwand " + (x + 1);
+                final int mIndex = pShow.index(mSatz, x);
+                mCompiler.check(SPEED, pShow.speed[mIndex], mLeinwandPath);
+                mCompiler.check(POSITION, pShow.position[mIndex], mLeinwandPath);
+                mCompiler.check(DREHRICHTUNG, pShow.drehrichtung[mIndex], mLeinwandPath);
+            }
+        }
+        return mCompiler.mErrors;
+    }
+
+    /* child elements with the given tag, other elements are reported if pPath is given */
+    private List<Element> children(Element pParent, String pTag, String pPath) {
+        final ArrayList<Element> mChildren = new ArrayList<Element>();
+        for (Node mNode = pParent.getFirstChild(); mNode != null; mNode = mNode.getNextSibling()) {
+            if (mNode.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            final Element mElement = (Element)mNode;
+            if (mElement.getTagName().equals(pTag)) {
+                mChildren.add(mElement);
+            } else if (pPath != null) {
+                error(pPath + ": unexpected element <" + mElement.getTagName() + ">");
+            }
+        }
+        return mChildren;
+    }
+
+    private String text(Element pElement, String pAttribute, String pPath) {
+        if (!pElement.hasAttribute(pAttribute)) {
+            error(pPath + ": " + pAttribute + " is missing");
+            return "";
+        }
+        return pElement.getAttribute(pAttribute);
+    }
+
+    private int number(Element pElement, Range pRange, String pPath) {
+        if (!pElement.hasAttribute(pRange.attribute)) {
+            error(pPath + ": " + pRange.attribute + " is missing");
+            return 0;
+        }
+        final String mValue = pElement.getAttribute(pRange.attribute).trim();
+        try {
+            final int mNumber = Integer.parseInt(mValue);
+            check(pRange, mNumber, pPath);
+            return mNumber;
+        } catch (NumberFormatException e) {
+            error(pPath + ": " + pRange.attribute + "=\"" + mValue + "\" is not a number");
+            return 0;
+        }
+    }
+
+    private void check(Range pRange, int pValue, String pPath) {
+        if (pValue < pRange.min || pValue > pRange.max) {
+            error(pPath + ": " + pRange.attribute + "=\"" + pValue + "\" is outside " + pRange.min + " to "
+                    + pRange.max);
+        }
+    }
+
+    private void error(String pError) {
+        mErrors.add(pError);
+    }
+
+    private static class Range {
+
+        final String attribute;
+
+        final int min;
+
+        final int max;
+
+        Range(String pAttribute, int pMin, int pMax) {
+            attribute = pAttribute;
+            min = pMin;
+            max = pMax;
+        }
+    }
+}
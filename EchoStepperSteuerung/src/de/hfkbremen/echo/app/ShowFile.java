@@ -0,0 +1,269 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
+
+
+/**
+ * a show compiled by {@link ShowCompiler}. all values are kept in flat int arrays, the satz values indexed by
+ * satz, the leinwand values by {@link #index(int, int)}. saetze are numbered through the whole show, an akt
+ * owns {@link #aktSaetze} saetze starting at {@link #aktFirstSatz}.
+ * <p>
+ * the file is big endian: a header of magic, version, number of motors, akte and saetze and a crc32 of the
+ * header fields before it and everything behind the header, then every int column one after another and
+ * finally the names of the akte and saetze as length prefixed UTF-8. the counts of the header are checked
+ * against the size of the file before anything is allocated, the values of a loaded show with the rules of
+ * the {@link ShowCompiler}.
+ */
+public class ShowFile {
+
+    /* 'ECHO' */
+    public static final int MAGIC = 0x4543484F;
+
+    /* 2 added the satz duration, 3 covers the header with the checksum */
+    public static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 6 * 4;
+
+    /* the header fields in front of the checksum */
+    private static final int CHECKED_HEADER_SIZE = 5 * 4;
+
+    private static final int SATZ_COLUMNS = 8;
+
+    private static final int LEINWAND_COLUMNS = 3;
+
+    private static final int CRC_CHUNK = 4096;
+
+    public final int numberOfMotors;
+
+    public final String[] aktName;
+
+    public final int[] aktFirstSatz;
+
+    public final int[] aktSaetze;
+
+    public final String[] satzName;
+
+    public final int[] satzID;
+
+    public final int[] drehmodus;
+
+    public final int[] richtungswechsel;
+
+    public final int[] wiederholungen;
+
+    public final int[] startrampe;
+
+    public final int[] bremsrampe;
+
+    public final int[] pause;
+
+    /* milliseconds from the start of a satz to the next one, 0 waits until all motors are ready */
+    public final int[] dauer;
+
+    public final int[] speed;
+
+    public final int[] position;
+
+    public final int[] drehrichtung;
+
+    ShowFile(int pNumberOfMotors, int pNumberOfAkte, int pNumberOfSaetze) {
+        numberOfMotors = pNumberOfMotors;
+        aktName = new String[pNumberOfAkte];
+        aktFirstSatz = new int[pNumberOfAkte];
+        aktSaetze = new int[pNumberOfAkte];
+        satzName = new String[pNumberOfSaetze];
+        satzID = new int[pNumberOfSaetze];
+        drehmodus = new int[pNumberOfSaetze];
+        richtungswechsel = new int[pNumberOfSaetze];
+        wiederholungen = new int[pNumberOfSaetze];
+        startrampe = new int[pNumberOfSaetze];
+        bremsrampe = new int[pNumberOfSaetze];
+        pause = new int[pNumberOfSaetze];
+        dauer = new int[pNumberOfSaetze];
+        speed = new int[pNumberOfSaetze * pNumberOfMotors];
+        position = new int[pNumberOfSaetze * pNumberOfMotors];
+        drehrichtung = new int[pNumberOfSaetze * pNumberOfMotors];
+    }
+
+    public int numberOfAkte() {
+        return aktName.length;
+    }
+
+    public int numberOfSaetze() {
+        return satzID.length;
+    }
+
+    /**
+     * index into {@link #speed}, {@link #position} and {@link #drehrichtung}. the leinwand index starts at 0,
+     * the motor id is leinwand + 1.
+     */
+    public int index(int pSatz, int pLeinwand) {
+        return pSatz * numberOfMotors + pLeinwand;
+    }
+
+    public void write(File pFile) throws IOException {
+        final ByteArrayOutputStream mBytes = new ByteArrayOutputStream();
+        final DataOutputStream mOut = new DataOutputStream(mBytes);
+        for (int[] mColumn : columns()) {
+            for (int i = 0; i < mColumn.length; i++) {
+                mOut.writeInt(mColumn[i]);
+            }
+        }
+        for (int i = 0; i < aktName.length; i++) {
+            mOut.writeUTF(aktName[i]);
+        }
+        for (int i = 0; i < satzName.length; i++) {
+            mOut.writeUTF(satzName[i]);
+        }
+        mOut.flush();
+        final byte[] mPayload = mBytes.toByteArray();
+
+        final ByteArrayOutputStream mHeaderBytes = new ByteArrayOutputStream();
+        final DataOutputStream mHeader = new DataOutputStream(mHeaderBytes);
+        mHeader.writeInt(MAGIC);
+        mHeader.writeInt(VERSION);
+        mHeader.writeInt(numberOfMotors);
+        mHeader.writeInt(aktName.length);
+        mHeader.writeInt(satzName.length);
+        mHeader.flush();
+        final CRC32 mCRC = new CRC32();
+        mCRC.update(mHeaderBytes.toByteArray());
+        mCRC.update(mPayload);
+
+        final DataOutputStream mFile = new DataOutputStream(new FileOutputStream(pFile));
+        try {
+            mHeaderBytes.writeTo(mFile);
+            mFile.writeInt((int)mCRC.getValue());
+            mFile.write(mPayload);
+        } finally {
+            mFile.close();
+        }
+    }
+
+    /**
+     * maps a compiled show into memory and copies its columns.
+     */
+    public static ShowFile load(File pFile) throws IOException, ShowFormatException {
+        final RandomAccessFile mFile = new RandomAccessFile(pFile, "r");
+        try {
+            final FileChannel mChannel = mFile.getChannel();
+            if (mChannel.size() < HEADER_SIZE) {
+                throw new ShowFormatException(pFile + " is not a compiled show");
+            }
+            final MappedByteBuffer mBuffer = mChannel.map(FileChannel.MapMode.READ_ONLY, 0, mChannel.size());
+            if (mBuffer.getInt() != MAGIC) {
+                throw new ShowFormatException(pFile + " is not a compiled show");
+            }
+            final int mVersion = mBuffer.getInt();
+            if (mVersion != VERSION) {
+                throw new ShowFormatException(pFile + " has version " + mVersion + ", expected " + VERSION
+                        + ". compile the show again.");
+            }
+            final int mNumberOfMotors = mBuffer.getInt();
+            final int mNumberOfAkte = mBuffer.getInt();
+            final int mNumberOfSaetze = mBuffer.getInt();
+            final int mCRC = mBuffer.getInt();
+            if (crc(mBuffer) != mCRC) {
+                throw new ShowFormatException(pFile + " is damaged, the checksum does not match");
+            }
+            if (mNumberOfMotors != Properties.NUMBER_OF_LEINWAENDE) {
+                throw new ShowFormatException(pFile + " is for " + mNumberOfMotors + " leinwaende, expected "
+                        + Properties.NUMBER_OF_LEINWAENDE + ". compile the show again.");
+            }
+            /* the checksum does not protect against a file that was written wrong, so the counts have to fit
+             * into the file before the columns are allocated: every akt and satz has its ints and a name of at
+             * least its length prefix. */
+            if (mNumberOfAkte < 0 || mNumberOfSaetze < 0
+                    || minimumSize(mNumberOfMotors, mNumberOfAkte, mNumberOfSaetze) > mChannel.size()) {
+                throw new ShowFormatException(pFile + " has a broken header");
+            }
+
+            final ShowFile mShow = new ShowFile(mNumberOfMotors, mNumberOfAkte, mNumberOfSaetze);
+            try {
+                mBuffer.position(HEADER_SIZE);
+                final IntBuffer mInts = mBuffer.asIntBuffer();
+                int mIntCount = 0;
+                for (int[] mColumn : mShow.columns()) {
+                    mInts.get(mColumn);
+                    mIntCount += mColumn.length;
+                }
+                mBuffer.position(HEADER_SIZE + mIntCount * 4);
+                for (int i = 0; i < mNumberOfAkte; i++) {
+                    mShow.aktName[i] = readUTF(mBuffer);
+                }
+                for (int i = 0; i < mNumberOfSaetze; i++) {
+                    mShow.satzName[i] = readUTF(mBuffer);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new ShowFormatException(pFile + " is truncated");
+            }
+            for (int i = 0; i < mNumberOfAkte; i++) {
+                if (mShow.aktFirstSatz[i] < 0 || mShow.aktSaetze[i] < 0
+                        || (long)mShow.aktFirstSatz[i] + mShow.aktSaetze[i] > mNumberOfSaetze) {
+                    throw new ShowFormatException(pFile + " has broken saetze in akt " + mShow.aktName[i]);
+                }
+            }
+            final List<String> mErrors = ShowCompiler.check(mShow);
+            if (!mErrors.isEmpty()) {
+                throw new ShowFormatException(pFile.getName(), mErrors);
+            }
+            return mShow;
+        } finally {
+            mFile.close();
+        }
+    }
+
+    private int[][] columns() {
+        return new int[][] {aktFirstSatz, aktSaetze,
+                            satzID, drehmodus, richtungswechsel, wiederholungen, startrampe, bremsrampe, pause, dauer,
+                            speed, position, drehrichtung};
+    }
+
+    private static long minimumSize(int pNumberOfMotors, int pNumberOfAkte, int pNumberOfSaetze) {
+        final long mInts = 2L * pNumberOfAkte + (long)SATZ_COLUMNS * pNumberOfSaetze
+                + (long)LEINWAND_COLUMNS * pNumberOfSaetze * pNumberOfMotors;
+        return HEADER_SIZE + mInts * 4 + 2L * (pNumberOfAkte + pNumberOfSaetze);
+    }
+
+    private static int crc(ByteBuffer pBuffer) {
+        final CRC32 mCRC = new CRC32();
+        final byte[] mChunk = new byte[CRC_CHUNK];
+        final ByteBuffer mHeader = pBuffer.duplicate();
+        mHeader.position(0);
+        mHeader.get(mChunk, 0, CHECKED_HEADER_SIZE);
+        mCRC.update(mChunk, 0, CHECKED_HEADER_SIZE);
+        final ByteBuffer mPayload = pBuffer.duplicate();
+        mPayload.position(HEADER_SIZE);
+        while (mPayload.hasRemaining()) {
+            final int mLength = Math.min(mChunk.length, mPayload.remaining());
+            mPayload.get(mChunk, 0, mLength);
+            mCRC.update(mChunk, 0, mLength);
+        }
+        return (int)mCRC.getValue();
+    }
+
+    /* written with DataOutput.writeUTF, its modified UTF-8 only differs for '\0' and characters beyond 0xFFFF */
+    private static String readUTF(ByteBuffer pBuffer) throws ShowFormatException {
+        final int mLength = pBuffer.getShort() & 0xFFFF;
+        final byte[] mBytes = new byte[mLength];
+        pBuffer.get(mBytes);
+        try {
+            return new String(mBytes, "UTF-8");
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new ShowFormatException(e.getMessage());
+        }
+    }
+}
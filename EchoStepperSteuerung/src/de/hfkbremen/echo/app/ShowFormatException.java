@@ -0,0 +1,31 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.List;
+
+
+/**
+ * a show that must not reach the motors, either a malformed xml show or a broken compiled show file.
+ */
+public class ShowFormatException
+        extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public ShowFormatException(String pMessage) {
+        super(pMessage);
+    }
+
+    public ShowFormatException(String pFile, List<String> pErrors) {
+        super(message(pFile, pErrors));
+    }
+
+    private static String message(String pFile, List<String> pErrors) {
+        final StringBuilder mMessage = new StringBuilder();
+        mMessage.append(pErrors.size()).append(" errors in ").append(pFile);
+        for (String mError : pErrors) {
+            mMessage.append("\n    ").append(mError);
+        }
+        return mMessage.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package de.hfkbremen.echo.app;
+
+
+/**
+ * the show as it is played, an immutable snapshot of a {@link ShowFile}. every value sits in an int column,
+ * the leinwand values of all saetze in one column each at satz * number of leinwaende + leinwand. saetze are
+ * numbered through the whole show, {@link #satz(int, int)} turns akt and satz of the akt into that number.
+ * a model never changes once it is built, a new show is a new model that replaces the old one as a whole, so
+ * readers on any thread can keep using the model they have.
+ */
+public final class ShowModel {
+
+    private final int mNumberOfLeinwaende;
+
+    private final String[] mAktName;
+
+    private final int[] mAktFirstSatz;
+
+    private final int[] mAktSaetze;
+
+    private final String[] mSatzName;
+
+    private final int[] mSatzID;
+
+    private final int[] mDrehmodus;
+
+    private final int[] mRichtungswechsel;
+
+    private final int[] mWiederholungen;
+
+    private final int[] mStartrampe;
+
+    private final int[] mBremsrampe;
+
+    private final int[] mPause;
+
+    private final int[] mDauer;
+
+    private final int[] mSpeed;
+
+    private final int[] mPosition;
+
+    private final int[] mDrehrichtung;
+
+    public ShowModel(ShowFile pShow) {
+        mNumberOfLeinwaende = pShow.numberOfMotors;
+        mAktName = pShow.aktName.clone();
+        mAktFirstSatz = pShow.aktFirstSatz.clone();
+        mAktSaetze = pShow.aktSaetze.clone();
+        mSatzName = pShow.satzName.clone();
+        mSatzID = pShow.satzID.clone();
+        mDrehmodus = pShow.drehmodus.clone();
+        mRichtungswechsel = pShow.richtungswechsel.clone();
+        mWiederholungen = pShow.wiederholungen.clone();
+        mStartrampe = pShow.startrampe.clone();
+        mBremsrampe = pShow.bremsrampe.clone();
+        mPause = pShow.pause.clone();
+        mDauer = pShow.dauer.clone();
+        mSpeed = pShow.speed.clone();
+        mPosition = pShow.position.clone();
+        mDrehrichtung = pShow.drehrichtung.clone();
+    }
+
+    public int numberOfLeinwaende() {
+        return mNumberOfLeinwaende;
+    }
+
+    public int numberOfAkte() {
+        return mAktName.length;
+    }
+
+    public String aktName(int pAkt) {
+        return mAktName[pAkt];
+    }
+
+    public int numberOfSaetze() {
+        return mSatzID.length;
+    }
+
+    public int numberOfSaetze(int pAkt) {
+        return mAktSaetze[pAkt];
+    }
+
+    /**
+     * the number of a satz in the show, pSatz counts within the akt.
+     */
+    public int satz(int pAkt, int pSatz) {
+        return mAktFirstSatz[pAkt] + pSatz;
+    }
+
+    public String satzName(int pSatz) {
+        return mSatzName[pSatz];
+    }
+
+    public int satzID(int pSatz) {
+        return mSatzID[pSatz];
+    }
+
+    public int drehmodus(int pSatz) {
+        return mDrehmodus[pSatz];
+    }
+
+    public int richtungswechsel(int pSatz) {
+        return mRichtungswechsel[pSatz];
+    }
+
+    public int wiederholungen(int pSatz) {
+        return mWiederholungen[pSatz];
+    }
+
+    public int startrampe(int pSatz) {
+        return mStartrampe[pSatz];
+    }
+
+    public int bremsrampe(int pSatz) {
+        return mBremsrampe[pSatz];
+    }
+
+    public int pause(int pSatz) {
+        return mPause[pSatz];
+    }
+
+    /**
+     * milliseconds from the start of the satz until the next satz is started, 0 if the next satz waits until
+     * all motors are ready.
+     */
+    public int dauer(int pSatz) {
+        return mDauer[pSatz];
+    }
+
+    public int speed(int pSatz, int pLeinwand) {
+        return mSpeed[pSatz * mNumberOfLeinwaende + pLeinwand];
+    }
+
+    public int position(int pSatz, int pLeinwand) {
+        return mPosition[pSatz * mNumberOfLeinwaende + pLeinwand];
+    }
+
+    public int drehrichtung(int pSatz, int pLeinwand) {
+        return mDrehrichtung[pSatz * mNumberOfLeinwaende + pLeinwand];
+    }
+}
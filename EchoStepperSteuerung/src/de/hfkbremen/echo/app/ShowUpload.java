@@ -0,0 +1,475 @@
+package de.hfkbremen.echo.app;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+
+/**
+ * programs the satz records of all motors. only the values that differ from the {@link RecordShadow} are
+ * sent. a record that is partly out of date is first loaded with 'y', patched and then stored again with '>',
+ * a record that is unknown is written completely. loads and stores are sent to every motor on its own.
+ * <p>
+ * a value that all updated motors of a satz share may be sent once to the broadcast address '#*' instead of
+ * once per motor. this mostly applies to the satz parameters but also to leinwand values that happen to be
+ * equal for every motor. the motors do not answer a broadcast, so a record that got a broadcast value is read
+ * out with 'Z|' after its store, once per motor and record. a broadcast is followed by the gap of
+ * {@link Properties#DELAY_BETWEEN_SERIAL_WRITES}, so values are only broadcast where the broadcasts and the
+ * read outs take less time on the bus than the unicasts they replace, see
+ * {@link Properties#SERIAL_BROADCAST_COST} and {@link Properties#SERIAL_READ_OUT_COST}.
+ * <p>
+ * the shadow of a record is only updated once the motor acknowledged its load, its values and its store
+ * without an error and, if it got broadcasts, read out the values of the record. a record that could not be
+ * verified is removed from the shadow and written completely by the next upload.
+ */
+public class ShowUpload
+        implements Runnable {
+
+    public interface Listener {
+
+        /**
+         * called on the upload thread when the upload is done and was not stopped. loading records and
+         * setting values changed the working values of the motors.
+         */
+        void uploadDone();
+    }
+
+    public static final char[] SATZ_PARAMETER = {'p', 't', 'W', 'b', 'B', 'P'};
+
+    public static final char[] LEINWAND_PARAMETER = {'o', 's', 'd'};
+
+    private static final int NUMBER_OF_PARAMETERS = SATZ_PARAMETER.length + LEINWAND_PARAMETER.length;
+
+    private static final int NOT_SENT = -1;
+
+    /* reads out the working values of a motor, which are the values of the record after a store */
+    private static final char RECORD_READ_OUT = '|';
+
+    private final Serial mSerial;
+
+    private final RecordShadow mShadow;
+
+    private final ArrayList<Satz> mSaetze;
+
+    private final ArrayList<Record> mRecords;
+
+    private final ArrayList<MotorCommand> mCommands;
+
+    private final int mGeneration;
+
+    private int mBroadcasts;
+
+    private Listener mListener;
+
+    private volatile Thread mThread;
+
+    private volatile CommandFuture[] mQueuedFutures;
+
+    public ShowUpload(Serial pSerial, RecordShadow pShadow) {
+        this(pSerial, pShadow, pSerial.generation());
+    }
+
+    /**
+     * an upload for a producer that started in the given {@link Serial#generation()}, nothing is sent once an
+     * emergency stop stopped the producer.
+     */
+    public ShowUpload(Serial pSerial, RecordShadow pShadow, int pGeneration) {
+        mSerial = pSerial;
+        mShadow = pShadow;
+        mGeneration = pGeneration;
+        mSaetze = new ArrayList<Satz>();
+        mRecords = new ArrayList<Record>();
+        mCommands = new ArrayList<MotorCommand>();
+    }
+
+    /**
+     * adds a satz to the upload.
+     *
+     * @param pSatzValues values for {@link #SATZ_PARAMETER}
+     * @param pLeinwandValues values for {@link #LEINWAND_PARAMETER} per leinwand, motor id is index + 1
+     */
+    public void addSatz(int pSatzID, int[] pSatzValues, int[][] pLeinwandValues) {
+        mSaetze.add(new Satz(pSatzID, pSatzValues, pLeinwandValues));
+    }
+
+    /**
+     * adds every satz of the show.
+     */
+    public void addShow(ShowModel pShow) {
+        for (int mSatz = 0; mSatz < pShow.numberOfSaetze(); mSatz++) {
+            addSatz(pShow, mSatz, pShow.satzID(mSatz));
+        }
+    }
+
+    /**
+     * adds a satz of the show to be stored in the record pRecord, which need not be the satz id.
+     */
+    public void addSatz(ShowModel pShow, int pSatz, int pRecord) {
+        addSatz(pRecord, satzValues(pShow, pSatz), leinwandValues(pShow, pSatz));
+    }
+
+    /**
+     * true if every motor stored the values of the satz in the record pRecord, as far as the shadow knows.
+     */
+    public boolean isStored(ShowModel pShow, int pSatz, int pRecord) {
+        final Satz mSatz = new Satz(pRecord, satzValues(pShow, pSatz), leinwandValues(pShow, pSatz));
+        for (int x = 0; x < mSatz.leinwandValues.length; x++) {
+            final int[] mValues = mSatz.values(x);
+            for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                final Integer mStoredValue = mShadow.get(x + 1, pRecord, parameter(i));
+                if (mStoredValue == null || mStoredValue.intValue() != mValues[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void setListener(Listener pListener) {
+        mListener = pListener;
+    }
+
+    public synchronized Thread start() {
+        mThread = new Thread(this, "ShowUpload");
+        mThread.setDaemon(true);
+        mThread.start();
+        return mThread;
+    }
+
+    public boolean isRunning() {
+        final Thread mCurrent = mThread;
+        return mCurrent != null && mCurrent.isAlive();
+    }
+
+    /**
+     * stops an upload started with {@link #start()} and returns once its thread ended. commands that were not
+     * sent yet are given up, the records they belong to are removed from the shadow.
+     */
+    public synchronized void stop() {
+        final Thread mCurrent = mThread;
+        if (mCurrent == null) {
+            return;
+        }
+        mCurrent.interrupt();
+        cancel();
+        try {
+            mCurrent.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * gives up the commands of the upload that were not sent yet, without waiting for it. an upload a producer
+     * runs on its own thread with {@link #run()} is stopped like this, the producer thread has to be interrupted
+     * before, so an upload that did not queue its commands yet gives them up itself.
+     */
+    public void cancel() {
+        final CommandFuture[] mQueued = mQueuedFutures;
+        if (mQueued != null) {
+            mSerial.cancel(mQueued);
+        }
+    }
+
+    /**
+     * removes the records of every satz of the upload from the shadow. an upload that was stopped may have
+     * written a part of a record while the shadow still holds the old values, the next upload writes the
+     * records completely.
+     */
+    public void forget() {
+        for (Satz mSatz : mSaetze) {
+            for (int x = 0; x < mSatz.leinwandValues.length; x++) {
+                for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                    mShadow.remove(x + 1, mSatz.satzID, parameter(i));
+                }
+            }
+        }
+        mShadow.save();
+    }
+
+    public void run() {
+        mRecords.clear();
+        mCommands.clear();
+        mBroadcasts = 0;
+        for (Satz mSatz : mSaetze) {
+            plan(mSatz);
+        }
+        final long mStart = System.currentTimeMillis();
+        final CommandFuture[] mFutures = mSerial.writeAll(mCommands, mGeneration);
+        mQueuedFutures = mFutures;
+        if (Thread.currentThread().isInterrupted()) {
+            /* stopped before stop() could see the futures */
+            mSerial.cancel(mFutures);
+        }
+        /* the commands went back to their pool */
+        mCommands.clear();
+        if (mFutures.length > 0 && mFutures[0].isDiscarded()) {
+            /* the serial queue was full or the upload was stopped, nothing went out and the shadow stays as it is */
+            System.out.println("### upload of " + mFutures.length + " commands was discarded");
+            return;
+        }
+        int mStored = 0;
+        for (Record mRecord : mRecords) {
+            if (isVerified(mRecord, mFutures)) {
+                for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                    mShadow.put(mRecord.motor, mRecord.satzID, parameter(i), mRecord.values[i]);
+                }
+                mStored++;
+            } else {
+                /* the record may hold anything now */
+                for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                    mShadow.remove(mRecord.motor, mRecord.satzID, parameter(i));
+                }
+            }
+        }
+        mShadow.save();
+        System.out.println("### upload: " + mStored + " of " + mRecords.size() + " changed records stored with "
+                + mFutures.length + " commands (" + mBroadcasts + " broadcasts) in "
+                + (System.currentTimeMillis() - mStart) + "ms");
+        if (mListener != null && !Thread.currentThread().isInterrupted()) {
+            mListener.uploadDone();
+        }
+    }
+
+    /* true if every command the record depends on was acknowledged and every broadcast value was read back */
+    private static boolean isVerified(Record pRecord, CommandFuture[] pFutures) {
+        if (pRecord.loadCommand != NOT_SENT && !isAcknowledged(pFutures[pRecord.loadCommand])) {
+            return false;
+        }
+        for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+            if (pRecord.commands[i] != NOT_SENT && !isAcknowledged(pFutures[pRecord.commands[i]])) {
+                return false;
+            }
+        }
+        if (!isAcknowledged(pFutures[pRecord.storeCommand])) {
+            return false;
+        }
+        if (pRecord.readOut != NOT_SENT) {
+            final CommandFuture mReadOut = pFutures[pRecord.readOut];
+            if (!isAcknowledged(mReadOut)) {
+                return false;
+            }
+            for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                final Integer mValue = mReadOut.value(parameter(i));
+                if (mValue == null || mValue.intValue() != pRecord.values[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAcknowledged(CommandFuture pFuture) {
+        pFuture.awaitSettled(Properties.SERIAL_REPLY_TIMEOUT);
+        return pFuture.isAnswered() && !pFuture.isError();
+    }
+
+    private static int[] satzValues(ShowModel pShow, int pSatz) {
+        return new int[] {pShow.drehmodus(pSatz),
+                          pShow.richtungswechsel(pSatz),
+                          pShow.wiederholungen(pSatz),
+                          pShow.startrampe(pSatz),
+                          pShow.bremsrampe(pSatz),
+                          pShow.pause(pSatz)};
+    }
+
+    private static int[][] leinwandValues(ShowModel pShow, int pSatz) {
+        final int[][] mLeinwandValues = new int[pShow.numberOfLeinwaende()][];
+        for (int x = 0; x < mLeinwandValues.length; x++) {
+            mLeinwandValues[x] = new int[] {pShow.speed(pSatz, x),
+                                            pShow.position(pSatz, x),
+                                            pShow.drehrichtung(pSatz, x)};
+        }
+        return mLeinwandValues;
+    }
+
+    private void plan(Satz pSatz) {
+        final ArrayList<Record> mUpdated = new ArrayList<Record>();
+        for (int x = 0; x < pSatz.leinwandValues.length; x++) {
+            final Record mRecord = new Record(x + 1, pSatz.satzID, pSatz.values(x));
+            for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+                final Integer mStoredValue = mShadow.get(mRecord.motor, pSatz.satzID, parameter(i));
+                mRecord.known &= mStoredValue != null;
+                mRecord.changed[i] = mStoredValue == null || mStoredValue.intValue() != mRecord.values[i];
+                mRecord.anyChanged |= mRecord.changed[i];
+            }
+            if (mRecord.anyChanged) {
+                mUpdated.add(mRecord);
+            }
+        }
+        if (mUpdated.isEmpty()) {
+            return;
+        }
+
+        /* start from the stored record so unchanged values stay as they are. the load is not broadcast, a
+         * motor that missed it would store whatever its working values are. */
+        for (Record mRecord : mUpdated) {
+            if (mRecord.known) {
+                mRecord.loadCommand = unicast(mRecord.motor, 'y', pSatz.satzID);
+            }
+        }
+
+        final boolean[] mBroadcast = planBroadcasts(mUpdated);
+        for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+            if (mBroadcast[i]) {
+                broadcast(parameter(i), mUpdated.get(0).values[i]);
+                for (Record mRecord : mUpdated) {
+                    mRecord.broadcast |= mRecord.changed[i];
+                }
+            } else {
+                for (Record mRecord : mUpdated) {
+                    if (mRecord.changed[i]) {
+                        mRecord.commands[i] = unicast(mRecord.motor, parameter(i), mRecord.values[i]);
+                    }
+                }
+            }
+        }
+
+        /* the store of every motor is acknowledged. the working values stay as they were stored, reading them
+         * out tells whether a motor got the broadcasts. */
+        for (Record mRecord : mUpdated) {
+            mRecord.storeCommand = unicast(mRecord.motor, '>', pSatz.satzID);
+        }
+        for (Record mRecord : mUpdated) {
+            if (mRecord.broadcast) {
+                mCommands.add(MotorCommand.read(mRecord.motor, RECORD_READ_OUT));
+                mRecord.readOut = mCommands.size() - 1;
+            }
+        }
+        mRecords.addAll(mUpdated);
+    }
+
+    /**
+     * chooses the parameters to broadcast. a parameter can be broadcast if all updated records share its value
+     * and it changed in more than one of them. the values that replace the most unicasts are taken first, as
+     * long as the broadcasts together with the read outs they need are cheaper than the unicasts.
+     */
+    private boolean[] planBroadcasts(final ArrayList<Record> pUpdated) {
+        /* with fixed pacing every frame is followed by the gap */
+        final boolean mAckPacing = mSerial.pacing() == Properties.SERIAL_PACING_ACK;
+        final int mBroadcastCost = mAckPacing ? Properties.SERIAL_BROADCAST_COST : 1;
+        final int mReadOutCost = mAckPacing ? Properties.SERIAL_READ_OUT_COST : 1;
+        final int[] mChanged = new int[NUMBER_OF_PARAMETERS];
+        final ArrayList<Integer> mCandidates = new ArrayList<Integer>();
+        for (int i = 0; i < NUMBER_OF_PARAMETERS; i++) {
+            boolean mShared = true;
+            for (Record mRecord : pUpdated) {
+                mChanged[i] += mRecord.changed[i] ? 1 : 0;
+                mShared &= mRecord.values[i] == pUpdated.get(0).values[i];
+            }
+            if (mChanged[i] > 1 && mShared) {
+                mCandidates.add(i);
+            }
+        }
+        Collections.sort(mCandidates, new Comparator<Integer>() {
+
+            public int compare(Integer a, Integer b) {
+                return mChanged[b] - mChanged[a];
+            }
+        });
+
+        final boolean[] mBroadcast = new boolean[NUMBER_OF_PARAMETERS];
+        final boolean[] mReadOut = new boolean[pUpdated.size()];
+        int mUnicasts = 0;
+        int mReadOuts = 0;
+        int mBest = 0;
+        int mBestSaving = 0;
+        for (int n = 0; n < mCandidates.size(); n++) {
+            final int i = mCandidates.get(n);
+            mUnicasts += mChanged[i];
+            for (int r = 0; r < mReadOut.length; r++) {
+                if (pUpdated.get(r).changed[i] && !mReadOut[r]) {
+                    mReadOut[r] = true;
+                    mReadOuts++;
+                }
+            }
+            final int mSaving = mUnicasts - (n + 1) * mBroadcastCost - mReadOuts * mReadOutCost;
+            if (mSaving > mBestSaving) {
+                mBestSaving = mSaving;
+                mBest = n + 1;
+            }
+        }
+        for (int n = 0; n < mBest; n++) {
+            mBroadcast[mCandidates.get(n)] = true;
+        }
+        return mBroadcast;
+    }
+
+    /* returns the index of the command */
+    private int unicast(int pMotor, char pCommand, int pValue) {
+        mCommands.add(MotorCommand.set(pMotor, pCommand, pValue));
+        return mCommands.size() - 1;
+    }
+
+    private void broadcast(char pCommand, int pValue) {
+        mCommands.add(MotorCommand.set(MotorCommand.BROADCAST, pCommand, pValue));
+        mBroadcasts++;
+    }
+
+    private static char parameter(int i) {
+        return i < SATZ_PARAMETER.length ? SATZ_PARAMETER[i] : LEINWAND_PARAMETER[i - SATZ_PARAMETER.length];
+    }
+
+    private static class Record {
+
+        final int motor;
+
+        final int satzID;
+
+        final int[] values;
+
+        final boolean[] changed;
+
+        /* indices of the commands the record depends on, NOT_SENT if there is none */
+        final int[] commands;
+
+        int loadCommand;
+
+        int storeCommand;
+
+        int readOut;
+
+        /* a value reached the motor through a broadcast and the record has to be read out */
+        boolean broadcast;
+
+        boolean known;
+
+        boolean anyChanged;
+
+        Record(int pMotor, int pSatzID, int[] pValues) {
+            motor = pMotor;
+            satzID = pSatzID;
+            values = pValues;
+            changed = new boolean[NUMBER_OF_PARAMETERS];
+            commands = new int[NUMBER_OF_PARAMETERS];
+            Arrays.fill(commands, NOT_SENT);
+            loadCommand = NOT_SENT;
+            readOut = NOT_SENT;
+            known = true;
+        }
+    }
+
+    private static class Satz {
+
+        final int satzID;
+
+        final int[] satzValues;
+
+        final int[][] leinwandValues;
+
+        Satz(int pSatzID, int[] pSatzValues, int[][] pLeinwandValues) {
+            satzID = pSatzID;
+            satzValues = pSatzValues;
+            leinwandValues = pLeinwandValues;
+        }
+
+        int[] values(int pLeinwand) {
+            final int[] mValues = new int[NUMBER_OF_PARAMETERS];
+            System.arraycopy(satzValues, 0, mValues, 0, SATZ_PARAMETER.length);
+            System.arraycopy(leinwandValues[pLeinwand], 0, mValues, SATZ_PARAMETER.length, LEINWAND_PARAMETER.length);
+            return mValues;
+        }
+    }
+}
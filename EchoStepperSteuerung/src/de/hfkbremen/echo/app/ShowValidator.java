@@ -0,0 +1,308 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * a dry run of the whole show without motors. every satz of every akt is simulated for all leinwaende with
+ * {@link MotionProfile} in the order the show plays it, a satz starts where the previous one left the
+ * leinwand. the report lists per satz how long it takes, the highest speed of any motor and the neighbours
+ * whose leinwaende get in each other's way.
+ * <p>
+ * the leinwaende stand in a row in the order of their motor ids, motor i + 1 turns its leinwand about an axis
+ * i * abstand millimeters from the first one. abstand and breite of a leinwand have to be measured on stage
+ * and given on the command line, there are no defaults to fall back to. two neighbours collide if their
+ * leinwaende cross at the same time. their envelopes overlap if some angle one of them passes during the
+ * satz crosses some angle the other one passes, which is only a problem if the timing of the satz changes.
+ * <p>
+ * the motors of a satz are simulated in parallel, java 5 has no fork/join so it is a plain thread pool.
+ * <pre>java de.hfkbremen.echo.app.ShowValidator data/inbetween.xml abstand_mm breite_mm</pre>
+ */
+public class ShowValidator {
+
+    /* angles of a leinwand are compared in steps of a degree, a leinwand looks the same after half a turn */
+    private static final int BINS = 180;
+
+    /* 0.9 degrees per step */
+    private static final int HALF_TURN = 200;
+
+    /* longest time between two samples, a motor never turns more than a degree between two samples */
+    private static final long MAX_SAMPLE = 5000000L;
+
+    private static final long MIN_SAMPLE = 100000L;
+
+    /* an endless satz is simulated for this long */
+    private static final long ENDLESS = 60 * 1000000000L;
+
+    private final ShowModel mShow;
+
+    private final int mMotors;
+
+    /* true if two neighbouring leinwaende at these angles cross */
+    private final boolean[][] mCrossing;
+
+    /* per satz, per leinwand */
+    private final MotionProfile[][] mProfiles;
+
+    private final long[] mLength;
+
+    private final long[] mSample;
+
+    private final byte[][][] mTimeline;
+
+    private final long[][][] mSwept;
+
+    private final List<List<String>> mProblems;
+
+    private int mErrors;
+
+    public ShowValidator(ShowModel pShow, int pAbstand, int pBreite) {
+        mShow = pShow;
+        mMotors = pShow.numberOfLeinwaende();
+        mCrossing = crossings(pAbstand, pBreite / 2.0);
+        final int mSaetze = pShow.numberOfSaetze();
+        mProfiles = new MotionProfile[mSaetze][mMotors];
+        mLength = new long[mSaetze];
+        mSample = new long[mSaetze];
+        mTimeline = new byte[mSaetze][mMotors][];
+        mSwept = new long[mSaetze][mMotors][];
+        mProblems = new ArrayList<List<String>>(mSaetze);
+        for (int i = 0; i < mSaetze; i++) {
+            mProblems.add(new ArrayList<String>());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("usage: ShowValidator <show.xml> <abstand_mm> <breite_mm>");
+            System.exit(2);
+        }
+        try {
+            final long mStart = System.nanoTime();
+            final ShowModel mShow = new ShowModel(ShowCompiler.compile(new File(args[0])));
+            final ShowValidator mValidator = new ShowValidator(mShow, Integer.parseInt(args[1]),
+                                                               Integer.parseInt(args[2]));
+            final int mErrors = mValidator.validate(Runtime.getRuntime().availableProcessors());
+            mValidator.report();
+            System.out.println("### checked " + mShow.numberOfSaetze() + " saetze in "
+                    + (System.nanoTime() - mStart) / 1000000 + "ms, " + mErrors + " errors");
+            System.exit(mErrors == 0 ? 0 : 1);
+        } catch (ShowFormatException e) {
+            System.err.println("### " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (NumberFormatException e) {
+            System.err.println("### " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * simulates the show and checks it, returns the number of errors found. warnings are only reported.
+     */
+    public int validate(int pThreads) {
+        plan();
+        final ExecutorService mPool = Executors.newFixedThreadPool(pThreads);
+        try {
+            final ArrayList<Callable<Object>> mTasks = new ArrayList<Callable<Object>>();
+            for (int i = 0; i < mShow.numberOfSaetze(); i++) {
+                for (int x = 0; x < mMotors; x++) {
+                    final int mSatz = i;
+                    final int mLeinwand = x;
+                    mTasks.add(new Callable<Object>() {
+
+                        public Object call() {
+                            sample(mSatz, mLeinwand);
+                            return null;
+                        }
+                    });
+                }
+            }
+            run(mPool, mTasks);
+            mTasks.clear();
+            for (int i = 0; i < mShow.numberOfSaetze(); i++) {
+                final int mSatz = i;
+                mTasks.add(new Callable<Object>() {
+
+                    public Object call() {
+                        neighbours(mSatz);
+                        return null;
+                    }
+                });
+            }
+            run(mPool, mTasks);
+        } finally {
+            mPool.shutdown();
+        }
+        return mErrors;
+    }
+
+    public void report() {
+        for (int mAkt = 0; mAkt < mShow.numberOfAkte(); mAkt++) {
+            System.out.println(mShow.aktName(mAkt));
+            for (int j = 0; j < mShow.numberOfSaetze(mAkt); j++) {
+                final int mSatz = mShow.satz(mAkt, j);
+                int mFastest = 0;
+                for (int x = 1; x < mMotors; x++) {
+                    if (mProfiles[mSatz][x].peakSpeed() > mProfiles[mSatz][mFastest].peakSpeed()) {
+                        mFastest = x;
+                    }
+                }
+                System.out.println("  " + mShow.satzName(mSatz) + ": " + mLength[mSatz] / 1000000 + "ms, peak "
+                        + Math.round(mProfiles[mSatz][mFastest].peakSpeed()) + " steps/s on motor " + (mFastest + 1));
+                for (String mProblem : mProblems.get(mSatz)) {
+                    System.out.println("    ### " + mProblem);
+                }
+            }
+        }
+    }
+
+    /* the profiles in the order the show plays them, the length of every satz and its sample time */
+    private void plan() {
+        final int[] mPosition = new int[mMotors];
+        for (int mSatz = 0; mSatz < mShow.numberOfSaetze(); mSatz++) {
+            long mMotion = 0;
+            float mPeak = 1;
+            for (int x = 0; x < mMotors; x++) {
+                final MotionProfile mProfile = MotionProfile.satz(mShow, mSatz, x, mPosition[x],
+                                                                  mShow.position(mSatz, x));
+                mProfiles[mSatz][x] = mProfile;
+                mMotion = Math.max(mMotion, Math.min(mProfile.duration(), ENDLESS));
+                mPeak = Math.max(mPeak, mProfile.peakSpeed());
+                if (mProfile.duration() == Long.MAX_VALUE && mShow.dauer(mSatz) == 0) {
+                    error(mSatz, "motor " + (x + 1) + " turns endlessly and the satz has no dauer_ms, the show "
+                            + "would wait for it forever");
+                }
+                if (mShow.dauer(mSatz) > 0 && mProfile.duration() > mShow.dauer(mSatz) * 1000000L) {
+                    error(mSatz, "motor " + (x + 1) + " still moves when the next satz starts after "
+                            + mShow.dauer(mSatz) + "ms");
+                }
+                mPosition[x] = mProfile.position(Math.min(mProfile.duration(), ENDLESS));
+            }
+            mLength[mSatz] = mShow.dauer(mSatz) > 0 ? mShow.dauer(mSatz) * 1000000L : mMotion;
+            /* 0.9 degrees per step */
+            mSample[mSatz] = Math.max(MIN_SAMPLE, Math.min(MAX_SAMPLE, (long)(1e9 / (mPeak * 0.9f))));
+        }
+    }
+
+    /* the angle of a leinwand at every sample and all angles it passes */
+    private void sample(int pSatz, int pLeinwand) {
+        final MotionProfile mProfile = mProfiles[pSatz][pLeinwand];
+        final int mSamples = (int)(mLength[pSatz] / mSample[pSatz]) + 1;
+        final byte[] mTimeline = new byte[mSamples];
+        final long[] mSwept = new long[(BINS + 63) / 64];
+        int mPrevious = mProfile.position(0);
+        for (int i = 0; i < mSamples; i++) {
+            final int mPosition = mProfile.position(i * mSample[pSatz]);
+            mTimeline[i] = (byte)bin(mPosition);
+            /* every step passed since the last sample, half a turn covers all angles */
+            final int mFrom = Math.min(mPrevious, mPosition);
+            for (int p = mFrom; p <= Math.min(Math.max(mPrevious, mPosition), mFrom + HALF_TURN); p++) {
+                final int mBin = bin(p);
+                mSwept[mBin / 64] |= 1L << (mBin % 64);
+            }
+            mPrevious = mPosition;
+        }
+        this.mTimeline[pSatz][pLeinwand] = mTimeline;
+        this.mSwept[pSatz][pLeinwand] = mSwept;
+    }
+
+    private void neighbours(int pSatz) {
+        for (int x = 0; x + 1 < mMotors; x++) {
+            final byte[] a = mTimeline[pSatz][x];
+            final byte[] b = mTimeline[pSatz][x + 1];
+            int mCollision = -1;
+            for (int i = 0; i < Math.max(a.length, b.length) && mCollision < 0; i++) {
+                if (mCrossing[a[Math.min(i, a.length - 1)] & 0xFF][b[Math.min(i, b.length - 1)] & 0xFF]) {
+                    mCollision = i;
+                }
+            }
+            if (mCollision >= 0) {
+                error(pSatz, "leinwand " + (x + 1) + " and " + (x + 2) + " collide after "
+                        + mCollision * mSample[pSatz] / 1000000 + "ms");
+            } else if (overlap(mSwept[pSatz][x], mSwept[pSatz][x + 1])) {
+                warning(pSatz, "the envelopes of leinwand " + (x + 1) + " and " + (x + 2) + " overlap");
+            }
+        }
+    }
+
+    private boolean overlap(long[] pA, long[] pB) {
+        for (int a = 0; a < BINS; a++) {
+            if ((pA[a / 64] & 1L << (a % 64)) == 0) {
+                continue;
+            }
+            for (int b = 0; b < BINS; b++) {
+                if ((pB[b / 64] & 1L << (b % 64)) != 0 && mCrossing[a][b]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private synchronized void error(int pSatz, String pProblem) {
+        mProblems.get(pSatz).add(pProblem);
+        mErrors++;
+    }
+
+    /* warnings are reported but not counted */
+    private synchronized void warning(int pSatz, String pProblem) {
+        mProblems.get(pSatz).add("warning: " + pProblem);
+    }
+
+    private static int bin(int pSteps) {
+        final int mDegrees = (int)Math.floor(pSteps * 0.9f);
+        return ((mDegrees % BINS) + BINS) % BINS;
+    }
+
+    /* leinwand a turns about (0, 0), leinwand b about (abstand, 0), both seen from above */
+    private static boolean[][] crossings(double pAbstand, double pRadius) {
+        final boolean[][] mCrossing = new boolean[BINS][BINS];
+        for (int a = 0; a < BINS; a++) {
+            final double ax = pRadius * Math.cos(Math.toRadians(a + 0.5));
+            final double ay = pRadius * Math.sin(Math.toRadians(a + 0.5));
+            for (int b = 0; b < BINS; b++) {
+                final double bx = pRadius * Math.cos(Math.toRadians(b + 0.5));
+                final double by = pRadius * Math.sin(Math.toRadians(b + 0.5));
+                mCrossing[a][b] = intersect(-ax, -ay, ax, ay, pAbstand - bx, -by, pAbstand + bx, by);
+            }
+        }
+        return mCrossing;
+    }
+
+    private static boolean intersect(double x1, double y1, double x2, double y2,
+                                     double x3, double y3, double x4, double y4) {
+        final double d1 = side(x3, y3, x4, y4, x1, y1);
+        final double d2 = side(x3, y3, x4, y4, x2, y2);
+        final double d3 = side(x1, y1, x2, y2, x3, y3);
+        final double d4 = side(x1, y1, x2, y2, x4, y4);
+        return d1 * d2 < 0 && d3 * d4 < 0;
+    }
+
+    private static double side(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static void run(ExecutorService pPool, List<Callable<Object>> pTasks) {
+        try {
+            for (Future<Object> mFuture : pPool.invokeAll(pTasks)) {
+                mFuture.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.File;
+import java.io.IOException;
+
+
+/**
+ * watches the show xml while the app is running. once the file changed and stayed unchanged for one
+ * interval of {@link Properties#SHOW_WATCH_INTERVAL} it is compiled on the watcher thread. a show that
+ * compiles is written to the compiled show file and handed to the listener as a new {@link ShowModel}, a
+ * show that does not compile is reported and the running show stays as it is.
+ * <p>
+ * the file is polled, java 5 has no file system notifications.
+ */
+public class ShowWatcher
+        implements Runnable {
+
+    public interface Listener {
+
+        /**
+         * called on the watcher thread with a complete, validated show.
+         */
+        void showChanged(ShowModel pShow);
+    }
+
+    private final File mXML;
+
+    private final File mCompiled;
+
+    private final Listener mListener;
+
+    private long mLoaded;
+
+    private long mLastSeen;
+
+    private Thread mThread;
+
+    public ShowWatcher(File pXML, File pCompiled, Listener pListener) {
+        mXML = pXML;
+        mCompiled = pCompiled;
+        mListener = pListener;
+        mLoaded = pXML.lastModified();
+        mLastSeen = mLoaded;
+    }
+
+    public synchronized void start() {
+        if (mThread == null) {
+            mThread = new Thread(this, "ShowWatcher");
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (mThread != null) {
+            mThread.interrupt();
+            mThread = null;
+        }
+    }
+
+    public void run() {
+        try {
+            while (true) {
+                Thread.sleep(Properties.SHOW_WATCH_INTERVAL);
+                poll();
+            }
+        } catch (InterruptedException e) {
+            /* watcher was stopped */
+        }
+    }
+
+    private void poll() {
+        final long mModified = mXML.lastModified();
+        /* an editor may still be writing, wait until the file stays the same for one interval */
+        final boolean mSettled = mModified == mLastSeen;
+        mLastSeen = mModified;
+        if (mModified == 0 || mModified == mLoaded || !mSettled) {
+            return;
+        }
+        mLoaded = mModified;
+        final long mStart = System.currentTimeMillis();
+        try {
+            final ShowFile mShow = ShowCompiler.compile(mXML);
+            mShow.write(mCompiled);
+            System.out.println("### reloaded " + mXML.getName() + " in " + (System.currentTimeMillis() - mStart)
+                    + "ms");
+            mListener.showChanged(new ShowModel(mShow));
+        } catch (ShowFormatException e) {
+            System.err.println("### " + e.getMessage());
+            System.err.println("### keeping the running show");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
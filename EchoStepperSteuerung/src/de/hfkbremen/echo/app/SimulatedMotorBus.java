@@ -0,0 +1,416 @@
+package de.hfkbremen.echo.app;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * an in-process bus with a number of simulated SMCI12 controllers. every controller keeps its working values
+ * and 32 record slots, moves with the configured ramps and answers like the firmware does: with an echo of
+ * the command without '#', with the value for read commands, with the command and '?' for a command it
+ * refuses, e.g. a start while the motor moves, and not at all for broadcasts. the time a frame
+ * spends on the wire at {@link RXTXMotorBus#BAUD} and the reaction time of the firmware are modelled, so
+ * throughput and latency measured against this bus are in the same range as on the real one.
+ * <p>
+ * after a broadcast every controller is busy for a while. a frame that arrives in that time is lost like it
+ * is on the real bus, so a sender that does not keep the gap after a broadcast shows up in
+ * {@link #missedFrames()}.
+ */
+public class SimulatedMotorBus
+        implements MotorBus {
+
+    public static final String NAME = "sim";
+
+    /* start bit, 8 data bits, stop bit */
+    private static final long NANOS_PER_BYTE = 10 * 1000000000L / RXTXMotorBus.BAUD;
+
+    private static final long RESPONSE_DELAY_NANOS = 1000000L;
+
+    /* shorter than Properties.DELAY_BETWEEN_SERIAL_WRITES, the gap the app keeps after a broadcast */
+    private static final long BROADCAST_PROCESSING_NANOS = 10000000L;
+
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final SimulatedController[] mControllers;
+
+    private final BlockingQueue<String> mReceived;
+
+    private final BlockingQueue<byte[]> mReplies;
+
+    private final InputStream mIn;
+
+    private final OutputStream mOut;
+
+    private final Thread mThread;
+
+    private long mBusFree;
+
+    private long mBroadcastProcessed;
+
+    private volatile int mMissedFrames;
+
+    public SimulatedMotorBus(int pNumberOfControllers) {
+        mControllers = new SimulatedController[pNumberOfControllers];
+        for (int i = 0; i < mControllers.length; i++) {
+            mControllers[i] = new SimulatedController(i + 1);
+        }
+        mReceived = new LinkedBlockingQueue<String>();
+        mReplies = new LinkedBlockingQueue<byte[]>();
+        mIn = new ReplyStream();
+        mOut = new CommandStream();
+        mThread = new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    while (true) {
+                        process(mReceived.take());
+                    }
+                } catch (InterruptedException e) {
+                    mReplies.offer(END_OF_STREAM);
+                }
+            }
+        }, "SimulatedMotorBus");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    public InputStream inputStream() {
+        return mIn;
+    }
+
+    public OutputStream outputStream() {
+        return mOut;
+    }
+
+    public String name() {
+        return NAME;
+    }
+
+    public void close() {
+        mThread.interrupt();
+    }
+
+    public SimulatedController controller(int pMotorID) {
+        return mControllers[pMotorID - 1];
+    }
+
+    public int numberOfControllers() {
+        return mControllers.length;
+    }
+
+    /**
+     * number of frames that arrived while the controllers were still processing a broadcast.
+     */
+    public int missedFrames() {
+        return mMissedFrames;
+    }
+
+    private void process(String pFrame) {
+        /* the frame is only complete once its last byte arrived */
+        mBusFree = Math.max(System.nanoTime(), mBusFree) + (pFrame.length() + 1) * NANOS_PER_BYTE;
+        waitUntil(mBusFree);
+        if (pFrame.length() < 3 || pFrame.charAt(0) != '#') {
+            return;
+        }
+        if (mBusFree < mBroadcastProcessed) {
+            mMissedFrames++;
+            return;
+        }
+        if (pFrame.charAt(1) == '*') {
+            for (SimulatedController mController : mControllers) {
+                mController.handle(pFrame.substring(2));
+            }
+            mBroadcastProcessed = mBusFree + BROADCAST_PROCESSING_NANOS;
+            return;
+        }
+        int i = 1;
+        while (i < pFrame.length() && Character.isDigit(pFrame.charAt(i))) {
+            i++;
+        }
+        if (i == 1) {
+            return;
+        }
+        final String mAddress = pFrame.substring(1, i);
+        final String mCommand = pFrame.substring(i);
+        final int mID = Integer.parseInt(mAddress);
+        if (mID < 1 || mID > mControllers.length) {
+            return;
+        }
+        final String mReply = mAddress + mControllers[mID - 1].handle(mCommand);
+        mBusFree += RESPONSE_DELAY_NANOS + (mReply.length() + 1) * NANOS_PER_BYTE;
+        waitUntil(mBusFree);
+        mReplies.offer((mReply + "\r").getBytes());
+    }
+
+    private static void waitUntil(long pNanoTime) {
+        long mRemaining;
+        while ((mRemaining = pNanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(mRemaining);
+        }
+    }
+
+    private class CommandStream
+            extends OutputStream {
+
+        private final StringBuilder mFrame = new StringBuilder();
+
+        public synchronized void write(int b) throws IOException {
+            final char c = (char)(b & 0xFF);
+            if (c == '\r') {
+                mReceived.offer(mFrame.toString());
+                mFrame.setLength(0);
+            } else {
+                mFrame.append(c);
+            }
+        }
+    }
+
+    private class ReplyStream
+            extends InputStream {
+
+        private byte[] mCurrent;
+
+        private int mPosition;
+
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                if (mCurrent == null || mPosition == mCurrent.length) {
+                    mCurrent = mReplies.take();
+                    mPosition = 0;
+                }
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted");
+            }
+            if (mCurrent == END_OF_STREAM) {
+                mReplies.offer(END_OF_STREAM);
+                return -1;
+            }
+            final int mLength = Math.min(len, mCurrent.length - mPosition);
+            System.arraycopy(mCurrent, mPosition, b, off, mLength);
+            mPosition += mLength;
+            return mLength;
+        }
+    }
+
+    /**
+     * a single simulated controller. positions are evaluated from the time a move was started, so the
+     * controller needs no thread of its own.
+     */
+    public static class SimulatedController {
+
+        /* the values that make up a record, see 'Satz speichern' in the programming manual */
+        private static final String RECORD = "psuonbBdtWPN";
+
+        private static final int NUMBER_OF_RECORDS = 32;
+
+        private final int mID;
+
+        private final int[] mWorking;
+
+        private final int[][] mRecords;
+
+        private MotionProfile mProfile;
+
+        private long mMoveStart;
+
+        private int mStoppedPosition;
+
+        private boolean mMoving;
+
+        private int mStarts;
+
+        private int mErrors;
+
+        /* the command the next mRefusals frames are refused for */
+        private char mRefused;
+
+        private int mRefusals;
+
+        SimulatedController(int pID) {
+            mID = pID;
+            mWorking = new int[128];
+            mWorking['p'] = 1;
+            mWorking['u'] = 1;
+            mWorking['o'] = 1;
+            mWorking['n'] = 1;
+            mWorking['b'] = 1;
+            mWorking['W'] = 1;
+            mRecords = new int[NUMBER_OF_RECORDS + 1][];
+        }
+
+        public int id() {
+            return mID;
+        }
+
+        public int value(char pCommand) {
+            return mWorking[pCommand];
+        }
+
+        /**
+         * the value stored in a record slot, or 0 if the slot was never written.
+         */
+        public int recordValue(int pRecord, char pCommand) {
+            final int mIndex = RECORD.indexOf(pCommand);
+            return mRecords[pRecord] == null || mIndex < 0 ? 0 : mRecords[pRecord][mIndex];
+        }
+
+        public int starts() {
+            return mStarts;
+        }
+
+        /**
+         * number of frames answered with '?'.
+         */
+        public synchronized int errors() {
+            return mErrors;
+        }
+
+        /**
+         * refuses the next pCount frames of a command like the firmware refuses a value it does not accept,
+         * e.g. to see a sender repeat what did not go through.
+         */
+        public synchronized void refuse(char pCommand, int pCount) {
+            mRefused = pCommand;
+            mRefusals = pCount;
+        }
+
+        public synchronized int position() {
+            update(System.nanoTime());
+            return mMoving ? position(System.nanoTime()) : mStoppedPosition;
+        }
+
+        public synchronized boolean isReady() {
+            update(System.nanoTime());
+            return !mMoving;
+        }
+
+        /**
+         * handles a command without address and returns the reply without address.
+         */
+        synchronized String handle(String pCommand) {
+            if (pCommand.length() == 0) {
+                return "?";
+            }
+            final char mCommand = pCommand.charAt(0);
+            if (mCommand == mRefused && mRefusals > 0) {
+                mRefusals--;
+                mErrors++;
+                return pCommand + "?";
+            }
+            switch (mCommand) {
+                case 'A':
+                    if (!isReady()) {
+                        /* the firmware does not take a new start while the motor moves */
+                        mErrors++;
+                        return pCommand + "?";
+                    }
+                    start();
+                    return pCommand;
+                case 'S':
+                    stop();
+                    return pCommand;
+                case 'C':
+                    return pCommand + position();
+                case '$':
+                    return pCommand + status();
+                case 'Z':
+                    if (pCommand.length() > 1 && pCommand.charAt(1) == '|') {
+                        return pCommand + readOut();
+                    }
+                    if (pCommand.length() > 1 && pCommand.charAt(1) < mWorking.length) {
+                        return pCommand + mWorking[pCommand.charAt(1)];
+                    }
+                    return pCommand + "?";
+                case ':':
+                    return pCommand;
+            }
+            final int mValue = parseValue(pCommand);
+            switch (mCommand) {
+                case 'y':
+                    if (mValue >= 1 && mValue <= NUMBER_OF_RECORDS && mRecords[mValue] != null) {
+                        for (int i = 0; i < RECORD.length(); i++) {
+                            mWorking[RECORD.charAt(i)] = mRecords[mValue][i];
+                        }
+                    }
+                    return pCommand;
+                case '>':
+                    if (mValue >= 1 && mValue <= NUMBER_OF_RECORDS) {
+                        mRecords[mValue] = new int[RECORD.length()];
+                        for (int i = 0; i < RECORD.length(); i++) {
+                            mRecords[mValue][i] = mWorking[RECORD.charAt(i)];
+                        }
+                    }
+                    return pCommand;
+            }
+            if (mCommand < mWorking.length) {
+                mWorking[mCommand] = mValue;
+            }
+            return pCommand;
+        }
+
+        private static int parseValue(String pCommand) {
+            int i = 1;
+            if (i < pCommand.length() && pCommand.charAt(i) == '+') {
+                i++;
+            }
+            try {
+                return i < pCommand.length() ? Integer.parseInt(pCommand.substring(i)) : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /* the working values of a record like 'p+1s+400u+400', see 'Satz auslesen' in the programming manual */
+        private String readOut() {
+            final StringBuilder mValues = new StringBuilder();
+            for (int i = 0; i < RECORD.length(); i++) {
+                final int mValue = mWorking[RECORD.charAt(i)];
+                mValues.append(RECORD.charAt(i)).append(mValue < 0 ? "" : "+").append(mValue);
+            }
+            return mValues.toString();
+        }
+
+        private int status() {
+            final int mPosition = position();
+            return 0x50 | (mMoving ? 0 : 1) | (mPosition == 0 ? 2 : 0);
+        }
+
+        private void start() {
+            if (mWorking['p'] != MotionProfile.RELATIVE && mWorking['p'] != MotionProfile.ABSOLUTE) {
+                /* only relative and absolute positioning are simulated */
+                return;
+            }
+            mStarts++;
+            mProfile = MotionProfile.start(mWorking['p'], position(), mWorking['s'], mWorking['d'], mWorking['o'],
+                                           mWorking['b'], mWorking['B'], mWorking['W'], mWorking['t'], mWorking['P']);
+            mMoveStart = System.nanoTime();
+            mMoving = true;
+        }
+
+        private void stop() {
+            mStoppedPosition = position();
+            mMoving = false;
+        }
+
+        private void update(long pNow) {
+            if (mMoving && !mProfile.isMoving(pNow - mMoveStart)) {
+                mStoppedPosition = mProfile.position(pNow - mMoveStart);
+                mMoving = false;
+            }
+        }
+
+        private int position(long pNow) {
+            return mProfile.position(pNow - mMoveStart);
+        }
+    }
+}
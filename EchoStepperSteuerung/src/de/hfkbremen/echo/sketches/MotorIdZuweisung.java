@@ -3,6 +3,10 @@
 package de.hfkbremen.echo.sketches;
 
 
+import de.hfkbremen.echo.app.CommandFuture;
+import de.hfkbremen.echo.app.MotorCommand;
+import de.hfkbremen.echo.app.Properties;
+import de.hfkbremen.echo.app.Serial;
 import processing.core.PApplet;
 
 import controlP5.*;
@@ -12,6 +16,8 @@ import controlP5.*;
 public class MotorIdZuweisung
         extends PApplet {
 
+    private static final String MOTORADRESSE = "Motoradresse";
+
     private Serial mSerial;
     ControlP5 controlP5;
 
@@ -19,13 +25,25 @@ public class MotorIdZuweisung
     Textfield myTextfield;
     controlP5.Button b;
     int i;
+
+    /* the 'm' query that asks the motor under its new address, answered or not it is looked at in draw() */
+    private CommandFuture mAntwort;
+
+    private long mGefragtUm;
+
+    private String mStatus = "";
+
     public void setup() {
         Serial.listPorts();
         size(300,300);
-        mSerial = Serial.open("/dev/tty.SLAB_USBtoUART");
-        mSerial.write("#*@A\r");
+        mSerial = Serial.open(Properties.MOTOR_BUS);
+        if (mSerial == null) {
+            mStatus = "bus " + Properties.MOTOR_BUS + " nicht gefunden";
+        } else {
+            mSerial.write(MotorCommand.parse("#*@A"));
+        }
         controlP5 = new ControlP5(this);
-        myTextfield = controlP5.addTextfield("Motoradresse",(width/2)-100,(height/2)-10,200,20);
+        myTextfield = controlP5.addTextfield(MOTORADRESSE,(width/2)-100,(height/2)-10,200,20);
         myTextfield.setFocus(true);
         controlP5.addButton("Test",0,(width/2)-100,(height/2)+55,200,20);
         controlP5.addButton("submit",0,(width/2)-100,(height/2)+30,200,20);
@@ -35,21 +53,59 @@ public class MotorIdZuweisung
 
     public void draw() {
         background(0);
-        
+        if (mAntwort != null) {
+            if (mAntwort.isAnswered()) {
+                mStatus = mAntwort.isError() ? "motor " + i + " versteht 'm' nicht"
+                                             : "motor " + i + " antwortet: " + mAntwort.reply();
+                mAntwort = null;
+            } else if (!mAntwort.isSent() && !mAntwort.isDone()) {
+                /* the time to answer starts once the query left, it waits behind the broadcast */
+                mGefragtUm = millis();
+            } else if (mAntwort.isDone() || millis() - mGefragtUm > Properties.SERIAL_REPLY_TIMEOUT) {
+                /* the query stays in the serial queue, it is only not waited for any more */
+                mStatus = "motor " + i + " antwortet nicht";
+                mAntwort = null;
+            }
+        }
+        fill(255);
+        text(mStatus, (width / 2) - 100, (height / 2) + 95, 200, 60);
     }
-    
+
     public void controlEvent(ControlEvent theEvent) {
-        String motorID = myTextfield.stringValue();
-        i = Integer.parseInt(motorID);
-        println(i);
-        mSerial.write("#*m"+i+"\r");
-        delay(10);
-        mSerial.write("#*Zm\r");
+        if (!theEvent.isController() || !theEvent.controller().name().equals(MOTORADRESSE)) {
+            return;
+        }
+        final String motorID = myTextfield.stringValue().trim();
+        final int mID;
+        try {
+            mID = Integer.parseInt(motorID);
+        } catch (NumberFormatException e) {
+            mStatus = "\"" + motorID + "\" ist keine motoradresse";
+            return;
+        }
+        if (mID < 1 || mID > MotorCommand.MAX_MOTOR_ID) {
+            mStatus = "motoradresse muss zwischen 1 und " + MotorCommand.MAX_MOTOR_ID + " liegen";
+            return;
+        }
+        if (mSerial == null) {
+            return;
+        }
+        i = mID;
+        mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'm', i));
+        /* a broadcast is never answered, the motor is asked under its new address. draw() looks at the reply,
+         * waiting for it here would stop the animation thread */
+        mAntwort = mSerial.write(MotorCommand.read(i, 'm'));
+        mGefragtUm = millis();
+        mStatus = "motor " + i + " wird gefragt";
     }
+
     public void Test() {
-        mSerial.write("#"+i+"s200\r");
-        delay(10);
-        mSerial.write("#"+i+"A\r");
+        /* only a motor that was given an address */
+        if (mSerial == null || i == 0) {
+            return;
+        }
+        mSerial.write(MotorCommand.set(i, 's', 200));
+        mSerial.write(MotorCommand.send(i, 'A'));
     }
     
     public void submit(int theValue) {
@@ -5,6 +5,8 @@
 package de.hfkbremen.echo.sketches;
 
 
+import de.hfkbremen.echo.app.MotorCommand;
+import de.hfkbremen.echo.app.Serial;
 import processing.core.PApplet;
 import controlP5.*;
 
@@ -18,12 +20,12 @@ public class SketchSendingReceiving
 
     boolean drehModus;
 
-    char motor;
+    int motor;
 
     public void setup() {
         size(120, 310);//beim skalieren verhältnis beachten ca 16/10
         background(0);
-        motor = '*';
+        motor = MotorCommand.BROADCAST;
         //Serial.listPorts();
         controlP5 = new ControlP5(this);
         controlP5.addButton("Start", 0, 10, 10, 100, 20).setId(1);
@@ -38,18 +40,9 @@ public class SketchSendingReceiving
         controlP5.addButton("DrehZahl-", 0, 10, 250, 100, 20).setId(10);
 
         mSerial = Serial.open("/dev/tty.SLAB_USBtoUART");
-        delay(10);
-
-
-        mSerial.write("#*p5\r");
-        delay(10);
-
-
-        mSerial.write("#*i100\r");
-        delay(10);
-
-
-        mSerial.write("#*o5\r");
+        mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'p', 5));
+        mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'i', 100));
+        mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'o', 5));
         drehModus = true;
 
 
@@ -61,84 +54,84 @@ public class SketchSendingReceiving
     public void keyPressed() {
         if (key == '1') {
             //mSerial.write("#*s100\r");
-            mSerial.write("#*d1\r");
-//            motor = '1';
+            mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'd', 1));
+//            motor = 1;
         }
         if (key == '2') {
             //mSerial.write("#*s200\r");
-            mSerial.write("#*d0\r");
-//            motor = '2';
+            mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 'd', 0));
+//            motor = 2;
         }
         if (key == '3') {
-            mSerial.write("#*s300\r");
+            mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 's', 300));
         }
         if (key == '4') {
-            mSerial.write("#*s400\r");
+            mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, 's', 400));
         }
         if (key == '5') {
-            mSerial.write("#*A\r");
+            mSerial.write(MotorCommand.send(MotorCommand.BROADCAST, 'A'));
         }
         if (key == 'm') {
-            mSerial.write("#*!2\r");
+            mSerial.write(MotorCommand.set(MotorCommand.BROADCAST, '!', 2));
         }
         if (key == '6') {
             
-             motor = '6';
+             motor = 6;
         }
         if (key == '7') {
            
-             motor = '7';
+             motor = 7;
         }
         if (key == '8') {
             
-             motor = '8';
+             motor = 8;
         }
         if (key == '9') {
-            mSerial.write("#*A\r");
+            mSerial.write(MotorCommand.send(MotorCommand.BROADCAST, 'A'));
         }
         if (key == '0') {
             //mSerial.write("#*A\r");
-            motor = '*';
+            motor = MotorCommand.BROADCAST;
         }
     }
 
     void controlEvent(ControlEvent theEvent) {
         switch (theEvent.controller().id()) {
             case (1):
-                mSerial.write("#" + motor + "A\r");
+                mSerial.write(MotorCommand.send(motor, 'A'));
                 break;
             case (2):
-                mSerial.write("#" + motor + "S\r");
+                mSerial.write(MotorCommand.send(motor, 'S'));
                 break;
             case (3):
                 if (drehModus) {
-                    mSerial.write("#" + motor + "p2\r");
+                    mSerial.write(MotorCommand.set(motor, 'p', 2));
                     drehModus = false;
                 } else {
-                    mSerial.write("#" + motor + "p5\r");
+                    mSerial.write(MotorCommand.set(motor, 'p', 5));
                     drehModus = true;
                 }
                 break;
             case (4):
-                mSerial.write("#" + motor + "s0\r");
+                mSerial.write(MotorCommand.set(motor, 's', 0));
                 break;
             case (5):
-                mSerial.write("#" + motor + "s100\r");
+                mSerial.write(MotorCommand.set(motor, 's', 100));
                 break;
             case (6):
-                mSerial.write("#" + motor + "s200\r");
+                mSerial.write(MotorCommand.set(motor, 's', 200));
                 break;
             case (7):
-                mSerial.write("#" + motor + "s300\r");
+                mSerial.write(MotorCommand.set(motor, 's', 300));
                 break;
             case (8):
-                mSerial.write("#" + motor + "s400\r");
+                mSerial.write(MotorCommand.set(motor, 's', 400));
                 break;
             case (9):
-                mSerial.write("#" + motor + "+\r");
+                mSerial.write(MotorCommand.send(motor, '+'));
                 break;
             case (10):
-                mSerial.write("#" + motor + "-\r");
+                mSerial.write(MotorCommand.send(motor, '-'));
                 break;
         }
     }
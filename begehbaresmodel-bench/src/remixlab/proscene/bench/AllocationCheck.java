@@ -0,0 +1,69 @@
+package remixlab.proscene.bench;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks of the paths that must not allocate with the gc
+ * profiler and fails if one of them allocates more than {@link #LIMIT}
+ * bytes/op. Unlike the AllocationTest the forks keep the escape analysis of
+ * the JIT, the check counts what the begehbares modell allocates when it
+ * runs. The benchmarks that return a new object are left out, and so is
+ * interpolateAtTime, which moves on to the next key frame every 25 calls and
+ * sets up the interpolation of the new segment then.
+ * <p>
+ * {@code mvn verify -Pallocation-check} runs it after the package.
+ */
+public class AllocationCheck {
+	public static final double LIMIT = 1;
+
+	static final String[] ALLOCATION_FREE = {
+			"CameraBenchmark\\.(projectedCoordinatesOfTarget|sphereIsVisible|aaBoxIsVisible|computeFrustumEquations)$",
+			"FrameBenchmark\\.\\w+(Target|Modified)$",
+			"QuaternionBenchmark\\.\\w+Target$" };
+
+	public static void main(String[] args) throws RunnerException {
+		OptionsBuilder options = new OptionsBuilder();
+		for (String benchmark : ALLOCATION_FREE)
+			options.include(AllocationCheck.class.getPackage().getName() + "\\."
+					+ benchmark);
+		Options check = options.addProfiler(GCProfiler.class)
+				.warmupIterations(3).warmupTime(TimeValue.seconds(1))
+				.measurementIterations(3).measurementTime(TimeValue.seconds(1))
+				.build();
+		Collection<RunResult> results = new Runner(check).run();
+		int failed = 0;
+		for (RunResult result : results) {
+			Result<?> allocated = result.getSecondaryResults().get(
+					"gc.alloc.rate.norm");
+			BenchmarkParams params = result.getParams();
+			String name = params.getBenchmark();
+			for (String key : params.getParamsKeys())
+				name += " " + key + "=" + params.getParam(key);
+			if (allocated == null) {
+				System.out.println(name + ": no gc.alloc.rate.norm");
+				failed++;
+			} else if (allocated.getScore() > LIMIT) {
+				System.out.println(name + " allocated " + allocated.getScore()
+						+ " bytes/op, at most " + LIMIT + " are allowed");
+				failed++;
+			}
+		}
+		if (results.isEmpty() || failed > 0) {
+			System.out.println("allocation check failed, " + failed + " of "
+					+ results.size() + " benchmarks");
+			System.exit(1);
+		}
+		System.out.println("allocation check passed, " + results.size()
+				+ " benchmarks below " + LIMIT + " bytes/op");
+	}
+}
@@ -0,0 +1,90 @@
+package remixlab.proscene.bench;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import processing.core.*;
+import remixlab.proscene.*;
+
+/**
+ * JMH benchmarks of the proscene math and camera code the begehbares modell
+ * runs every frame. The benchmarks report ns/op, run them with the gc
+ * profiler to get the allocated bytes/op as well.
+ * <p>
+ * The pom of this directory builds them against the proscene sources of
+ * {@code begehbaresmodel/src} and the Processing 1.5 core classes of
+ * {@code begehbaresmodel/dist}:
+ * <p>
+ * {@code java -cp target/benchmarks.jar:../begehbaresmodel/dist/begehbaresmodel.zip org.openjdk.jmh.Main -prof gc -rf json -rff result.json}
+ * <p>
+ * {@code baseline.json} holds the run the optimisations are compared
+ * against. On a headless machine the Scene is created through the
+ * {@link HeadlessDisplay}, the JVM needs {@value HeadlessDisplay#ADD_OPENS}
+ * then, the forks of the benchmarks get it from their {@code @Fork}.
+ */
+public class BenchmarkScene {
+	public static final int WIDTH = 640;
+	public static final int HEIGHT = 480;
+
+	static {
+		// before the PApplet class is initialized
+		HeadlessDisplay.install();
+	}
+
+	/**
+	 * Returns a Scene of {@link #WIDTH} x {@link #HEIGHT} pixels
+	 * whose camera matrices and frustum equations are up to date.
+	 */
+	public static Scene create() {
+		PApplet p = HeadlessDisplay.construct(new Callable<PApplet>() {
+			public PApplet call() {
+				return new PApplet() {
+					{
+						// the lists init() would create, without starting the
+						// animation thread, the Scene registers itself in them
+						sizeMethods = new RegisteredMethods();
+						preMethods = new RegisteredMethods();
+						drawMethods = new RegisteredMethods();
+						postMethods = new RegisteredMethods();
+						mouseEventMethods = new RegisteredMethods();
+						keyEventMethods = new RegisteredMethods();
+						disposeMethods = new RegisteredMethods();
+					}
+				};
+			}
+		});
+		// the PApplet is never started, its renderer is only sized
+		p.g = p.createGraphics(WIDTH, HEIGHT, PApplet.P3D);
+		Scene scene = new Scene(p);
+		scene.setRadius(100);
+		scene.showAll();
+		// the visibility tests warn on each call otherwise
+		scene.enableFrustumEquationsUpdate();
+		Camera camera = scene.camera();
+		camera.computeProjectionMatrix();
+		camera.computeModelViewMatrix();
+		camera.updateFrustumEquations();
+		return scene;
+	}
+
+	/**
+	 * Returns a normalized Quaternion, reproducible from {@code random}.
+	 */
+	public static Quaternion randomQuaternion(Random random) {
+		Quaternion q = new Quaternion(random.nextFloat() - 0.5f,
+				random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+				random.nextFloat() - 0.5f);
+		q.normalize();
+		return q;
+	}
+
+	/**
+	 * Returns a PVector in the [-size..size] cube, reproducible from
+	 * {@code random}.
+	 */
+	public static PVector randomVector(Random random, float size) {
+		return new PVector((random.nextFloat() * 2 - 1) * size,
+				(random.nextFloat() * 2 - 1) * size, (random.nextFloat() * 2 - 1)
+						* size);
+	}
+}
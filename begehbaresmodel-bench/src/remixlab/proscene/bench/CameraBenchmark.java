@@ -0,0 +1,66 @@
+package remixlab.proscene.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+import remixlab.proscene.*;
+
+/**
+ * Projections and frustum visibility tests of the Camera of a
+ * {@link BenchmarkScene} looking at a scene of radius 100.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = HeadlessDisplay.ADD_OPENS)
+@State(Scope.Thread)
+public class CameraBenchmark {
+	Camera camera;
+	PVector point, pixel;
+	PVector boxMin, boxMax;
+	PVector target = new PVector();
+	float[][] coef = new float[6][4];
+
+	@Setup
+	public void setup() {
+		camera = BenchmarkScene.create().camera();
+		point = new PVector(20, -10, 30);
+		pixel = camera.projectedCoordinatesOf(point);
+		// crosses the left frustum plane, all planes are tested
+		boxMin = new PVector(-500, -10, -10);
+		boxMax = new PVector(10, 10, 10);
+	}
+
+	@Benchmark
+	public PVector projectedCoordinatesOf() {
+		return camera.projectedCoordinatesOf(point);
+	}
+
+	@Benchmark
+	public PVector projectedCoordinatesOfTarget() {
+		return camera.projectedCoordinatesOf(point, null, target);
+	}
+
+	@Benchmark
+	public PVector unprojectedCoordinatesOf() {
+		return camera.unprojectedCoordinatesOf(pixel);
+	}
+
+	@Benchmark
+	public Camera.Visibility sphereIsVisible() {
+		return camera.sphereIsVisible(point, 5);
+	}
+
+	@Benchmark
+	public Camera.Visibility aaBoxIsVisible() {
+		return camera.aaBoxIsVisible(boxMin, boxMax);
+	}
+
+	@Benchmark
+	public float[][] computeFrustumEquations() {
+		return camera.computeFrustumEquations(coef);
+	}
+}
@@ -0,0 +1,87 @@
+package remixlab.proscene.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import processing.core.*;
+import remixlab.proscene.*;
+
+/**
+ * Conversions to and from the coordinate system of the leaf of a Frame
+ * hierarchy {@code depth} Frames deep.
+ * <p>
+ * The {@code cached} benchmarks query a hierarchy that does not change, the
+ * {@code modified} ones move the root Frame before each query, so that the
+ * world transformation of the whole chain has to be recomputed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = HeadlessDisplay.ADD_OPENS)
+@State(Scope.Thread)
+public class FrameBenchmark {
+	@Param({ "1", "2", "4", "8", "16" })
+	int depth;
+
+	Frame root, leaf;
+	PVector src;
+	PVector target = new PVector();
+	PVector step = new PVector(0.001f, 0, 0);
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		root = new Frame(BenchmarkScene.randomVector(random, 10),
+				BenchmarkScene.randomQuaternion(random));
+		leaf = root;
+		for (int i = 1; i < depth; i++) {
+			Frame child = new Frame(BenchmarkScene.randomVector(random, 10),
+					BenchmarkScene.randomQuaternion(random));
+			child.setReferenceFrame(leaf);
+			leaf = child;
+		}
+		src = BenchmarkScene.randomVector(random, 100);
+	}
+
+	@Benchmark
+	public PVector coordinatesOfCached() {
+		return leaf.coordinatesOf(src);
+	}
+
+	@Benchmark
+	public PVector coordinatesOfCachedTarget() {
+		return leaf.coordinatesOf(src, target);
+	}
+
+	@Benchmark
+	public PVector inverseCoordinatesOfCached() {
+		return leaf.inverseCoordinatesOf(src);
+	}
+
+	@Benchmark
+	public PVector inverseCoordinatesOfCachedTarget() {
+		return leaf.inverseCoordinatesOf(src, target);
+	}
+
+	@Benchmark
+	public void coordinatesOfModified(Blackhole bh) {
+		moveRoot();
+		bh.consume(leaf.coordinatesOf(src, target));
+	}
+
+	@Benchmark
+	public void inverseCoordinatesOfModified(Blackhole bh) {
+		moveRoot();
+		bh.consume(leaf.inverseCoordinatesOf(src, target));
+	}
+
+	// a small move back and forth, the hierarchy stays where it was set up
+	private void moveRoot() {
+		step.x = -step.x;
+		root.translate(step);
+	}
+}
@@ -0,0 +1,179 @@
+package remixlab.proscene.bench;
+
+import java.applet.Applet;
+import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.font.TextAttribute;
+import java.awt.im.InputMethodHighlight;
+import java.awt.image.ColorModel;
+import java.awt.image.ImageObserver;
+import java.awt.image.ImageProducer;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets the benchmarks and tests create a PApplet on a machine without a
+ * display. Processing 1.5 asks the Toolkit for the menu shortcut key and the
+ * screen size, and an Applet refuses to be created headless, although the
+ * Scene of a benchmark is never shown.
+ * <p>
+ * {@link #install()} replaces the headless Toolkit with this one, which
+ * answers those two questions and hands everything else to the headless
+ * Toolkit. {@link #construct(Callable)} lets AWT treat the JVM as not
+ * headless while an Applet is constructed. Both are private fields of
+ * {@code java.awt}, the JVM has to run with {@value #ADD_OPENS}.
+ */
+public class HeadlessDisplay extends Toolkit {
+	public static final String ADD_OPENS = "--add-opens=java.desktop/java.awt=ALL-UNNAMED";
+
+	static final Dimension SCREEN = new Dimension(1024, 768);
+
+	private static Field headlessField;
+
+	private final Toolkit headless;
+	private final EventQueue eventQueue = new EventQueue();
+
+	private HeadlessDisplay(Toolkit headless) {
+		this.headless = headless;
+	}
+
+	/**
+	 * Installs the Toolkit if the JVM is headless, does nothing otherwise.
+	 * Has to be called before the PApplet class is used.
+	 */
+	public static synchronized void install() {
+		if (!GraphicsEnvironment.isHeadless() || headlessField != null)
+			return;
+		try {
+			// initialized while headless, so they do not look for the
+			// native methods of a display
+			Class.forName(Applet.class.getName());
+			Field toolkit = Toolkit.class.getDeclaredField("toolkit");
+			toolkit.setAccessible(true);
+			toolkit.set(null, new HeadlessDisplay(Toolkit.getDefaultToolkit()));
+			Field field = GraphicsEnvironment.class.getDeclaredField("headless");
+			field.setAccessible(true);
+			headlessField = field;
+		} catch (Exception e) {
+			throw new IllegalStateException("a headless JVM needs " + ADD_OPENS,
+					e);
+		}
+	}
+
+	/**
+	 * Returns the Applet {@code constructor} creates. If the Toolkit is
+	 * installed the JVM does not count as headless meanwhile.
+	 */
+	public static synchronized <T extends Applet> T construct(
+			Callable<T> constructor) {
+		try {
+			if (headlessField == null)
+				return constructor.call();
+			headlessField.set(null, Boolean.FALSE);
+			try {
+				return constructor.call();
+			} finally {
+				headlessField.set(null, Boolean.TRUE);
+			}
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public int getMenuShortcutKeyMask() {
+		return Event.CTRL_MASK;
+	}
+
+	public Dimension getScreenSize() {
+		return new Dimension(SCREEN);
+	}
+
+	public int getScreenResolution() {
+		return 96;
+	}
+
+	public ColorModel getColorModel() {
+		return ColorModel.getRGBdefault();
+	}
+
+	@SuppressWarnings("deprecation")
+	public String[] getFontList() {
+		return headless.getFontList();
+	}
+
+	@SuppressWarnings("deprecation")
+	public FontMetrics getFontMetrics(Font font) {
+		return headless.getFontMetrics(font);
+	}
+
+	public void sync() {
+	}
+
+	public Image getImage(String filename) {
+		return headless.getImage(filename);
+	}
+
+	public Image getImage(URL url) {
+		return headless.getImage(url);
+	}
+
+	public Image createImage(String filename) {
+		return headless.createImage(filename);
+	}
+
+	public Image createImage(URL url) {
+		return headless.createImage(url);
+	}
+
+	public Image createImage(ImageProducer producer) {
+		return headless.createImage(producer);
+	}
+
+	public Image createImage(byte[] data, int offset, int length) {
+		return headless.createImage(data, offset, length);
+	}
+
+	public boolean prepareImage(Image image, int width, int height,
+			ImageObserver observer) {
+		return headless.prepareImage(image, width, height, observer);
+	}
+
+	public int checkImage(Image image, int width, int height,
+			ImageObserver observer) {
+		return headless.checkImage(image, width, height, observer);
+	}
+
+	public PrintJob getPrintJob(Frame frame, String title,
+			java.util.Properties properties) {
+		return null;
+	}
+
+	public void beep() {
+	}
+
+	public Clipboard getSystemClipboard() {
+		throw new HeadlessException();
+	}
+
+	protected EventQueue getSystemEventQueueImpl() {
+		return eventQueue;
+	}
+
+	public boolean isModalityTypeSupported(Dialog.ModalityType type) {
+		return false;
+	}
+
+	public boolean isModalExclusionTypeSupported(
+			Dialog.ModalExclusionType type) {
+		return false;
+	}
+
+	public Map<TextAttribute, ?> mapInputMethodHighlight(
+			InputMethodHighlight highlight) {
+		return null;
+	}
+}
@@ -0,0 +1,49 @@
+package remixlab.proscene.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import remixlab.proscene.*;
+
+/**
+ * Interpolation of a Frame along a path of {@code keyFrames} key frames, one
+ * second apart. Each call moves on by a fraction of a second, as the
+ * interpolation timer does every frame, and starts over at the end of the path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = HeadlessDisplay.ADD_OPENS)
+@State(Scope.Thread)
+public class KeyFrameInterpolatorBenchmark {
+	@Param({ "4", "32" })
+	int keyFrames;
+
+	KeyFrameInterpolator kfi;
+	Frame frame;
+	float time;
+
+	@Setup
+	public void setup() {
+		Scene scene = BenchmarkScene.create();
+		Random random = new Random(1);
+		frame = new Frame();
+		kfi = new KeyFrameInterpolator(scene, frame);
+		for (int i = 0; i < keyFrames; i++)
+			kfi.addKeyFrame(new Frame(BenchmarkScene.randomVector(random, 100),
+					BenchmarkScene.randomQuaternion(random)), i, false);
+		time = kfi.firstTime();
+	}
+
+	@Benchmark
+	public Frame interpolateAtTime() {
+		time += 0.04f;
+		if (time > kfi.lastTime())
+			time = kfi.firstTime();
+		kfi.interpolateAtTime(time);
+		return frame;
+	}
+}
@@ -0,0 +1,79 @@
+package remixlab.proscene.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.core.*;
+import remixlab.proscene.*;
+
+/**
+ * Quaternion interpolation and rotation, each one allocating its result and
+ * filling a target.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = HeadlessDisplay.ADD_OPENS)
+@State(Scope.Thread)
+public class QuaternionBenchmark {
+	Quaternion a, b, tgA, tgB;
+	PVector v;
+	float t;
+
+	Quaternion q = new Quaternion();
+	PVector w = new PVector();
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		a = BenchmarkScene.randomQuaternion(random);
+		b = BenchmarkScene.randomQuaternion(random);
+		tgA = BenchmarkScene.randomQuaternion(random);
+		tgB = BenchmarkScene.randomQuaternion(random);
+		v = BenchmarkScene.randomVector(random, 100);
+		t = 0.3f;
+	}
+
+	@Benchmark
+	public Quaternion slerp() {
+		return Quaternion.slerp(a, b, t);
+	}
+
+	@Benchmark
+	public Quaternion slerpTarget() {
+		return Quaternion.slerp(a, b, t, true, q);
+	}
+
+	@Benchmark
+	public Quaternion squad() {
+		return Quaternion.squad(a, tgA, tgB, b, t);
+	}
+
+	@Benchmark
+	public Quaternion squadTarget() {
+		return Quaternion.squad(a, tgA, tgB, b, t, q);
+	}
+
+	@Benchmark
+	public PVector rotate() {
+		return a.rotate(v);
+	}
+
+	@Benchmark
+	public PVector rotateTarget() {
+		return a.rotate(v, w);
+	}
+
+	@Benchmark
+	public PVector inverseRotate() {
+		return a.inverseRotate(v);
+	}
+
+	@Benchmark
+	public PVector inverseRotateTarget() {
+		return a.inverseRotate(v, w);
+	}
+}
@@ -0,0 +1,170 @@
+package remixlab.proscene.bench;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.*;
+
+import processing.core.*;
+import remixlab.proscene.*;
+
+/**
+ * The paths the begehbares modell runs every frame must not allocate. Each
+ * one is called {@link #CALLS} times after a warmup and the bytes the thread
+ * allocated meanwhile, as counted by the JVM, have to stay below
+ * {@link #SLACK}, a single PVector per call would be 3 MB. The smallest of
+ * {@link #ROUNDS} measurements counts, the JVM allocates once in a while
+ * while it compiles the calls.
+ * <p>
+ * The pom runs the tests with {@code -XX:-DoEscapeAnalysis}. Otherwise the
+ * JIT removes a temporary object that does not escape once the method is
+ * compiled, and whether a test passes depends on when that happens instead
+ * of on the code.
+ * <p>
+ * Like the benchmarks the tests run on a headless machine through the
+ * {@link HeadlessDisplay} {@link BenchmarkScene} installs. None of them is
+ * skipped, a JVM that can not count the allocations of a thread fails them.
+ */
+public class AllocationTest {
+	static final int WARMUP = 20000;
+	static final int CALLS = 100000;
+	static final int ROUNDS = 3;
+	static final long SLACK = 1024;
+
+	com.sun.management.ThreadMXBean threads;
+	Scene scene;
+
+	@Before
+	public void setup() {
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assertTrue("the JVM can not count the allocations of a thread",
+				threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		scene = BenchmarkScene.create();
+	}
+
+	@Test
+	public void rotate() {
+		Random random = new Random(1);
+		final Quaternion q = BenchmarkScene.randomQuaternion(random);
+		final PVector v = BenchmarkScene.randomVector(random, 100);
+		final PVector target = new PVector();
+		assertNoAllocation("Quaternion.rotate", new Runnable() {
+			public void run() {
+				q.inverseRotate(q.rotate(v, target), target);
+			}
+		});
+	}
+
+	@Test
+	public void slerp() {
+		Random random = new Random(1);
+		final Quaternion a = BenchmarkScene.randomQuaternion(random);
+		final Quaternion b = BenchmarkScene.randomQuaternion(random);
+		final Quaternion target = new Quaternion();
+		assertNoAllocation("Quaternion.slerp", new Runnable() {
+			public void run() {
+				Quaternion.slerp(a, b, 0.3f, true, target);
+			}
+		});
+	}
+
+	/**
+	 * The root of the hierarchy is moved before each query, the leaf has to
+	 * recompute its cached world transformation.
+	 */
+	@Test
+	public void coordinatesOf() {
+		Random random = new Random(1);
+		final PVector rootPosition = BenchmarkScene.randomVector(random, 100);
+		final Frame root = new Frame(rootPosition,
+				BenchmarkScene.randomQuaternion(random));
+		Frame frame = root;
+		for (int i = 0; i < 4; i++) {
+			Frame child = new Frame(BenchmarkScene.randomVector(random, 100),
+					BenchmarkScene.randomQuaternion(random));
+			child.setReferenceFrame(frame);
+			frame = child;
+		}
+		final Frame leaf = frame;
+		final PVector point = BenchmarkScene.randomVector(random, 100);
+		final PVector target = new PVector();
+		assertNoAllocation("Frame.coordinatesOf", new Runnable() {
+			public void run() {
+				rootPosition.x += 0.001f;
+				root.setTranslation(rootPosition);
+				leaf.inverseCoordinatesOf(leaf.coordinatesOf(point, target), target);
+			}
+		});
+	}
+
+	@Test
+	public void applyTransformation() {
+		Random random = new Random(1);
+		final Frame frame = new Frame(BenchmarkScene.randomVector(random, 100),
+				BenchmarkScene.randomQuaternion(random));
+		final PGraphics3D p3d = scene.renderer();
+		assertNoAllocation("Frame.applyTransformation", new Runnable() {
+			public void run() {
+				p3d.pushMatrix();
+				frame.applyTransformation(p3d);
+				p3d.popMatrix();
+			}
+		});
+	}
+
+	@Test
+	public void computeFrustumEquations() {
+		final Camera camera = scene.camera();
+		final float[][] coef = new float[6][4];
+		assertNoAllocation("Camera.computeFrustumEquations", new Runnable() {
+			public void run() {
+				camera.computeFrustumEquations(coef);
+			}
+		});
+	}
+
+	/**
+	 * Within the segment between two key frames, moving on to the next key
+	 * frame sets up the interpolation of the new segment once.
+	 */
+	@Test
+	public void interpolateAtTime() {
+		Random random = new Random(1);
+		final KeyFrameInterpolator kfi = new KeyFrameInterpolator(scene,
+				new Frame());
+		for (int i = 0; i < 4; i++)
+			kfi.addKeyFrame(new Frame(BenchmarkScene.randomVector(random, 100),
+					BenchmarkScene.randomQuaternion(random)), i, false);
+		assertNoAllocation("KeyFrameInterpolator.interpolateAtTime",
+				new Runnable() {
+					float time = 1;
+
+					public void run() {
+						time += 0.001f;
+						if (time >= 2)
+							time = 1;
+						kfi.interpolateAtTime(time);
+					}
+				});
+	}
+
+	private void assertNoAllocation(String name, Runnable call) {
+		for (int i = 0; i < WARMUP; i++)
+			call.run();
+		long id = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long before = threads.getThreadAllocatedBytes(id);
+			for (int i = 0; i < CALLS; i++)
+				call.run();
+			allocated = Math.min(allocated, threads.getThreadAllocatedBytes(id)
+					- before);
+		}
+		assertTrue(name + " allocated " + allocated + " bytes in " + CALLS
+				+ " calls", allocated < SLACK);
+	}
+}
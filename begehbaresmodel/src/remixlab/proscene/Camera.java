@@ -148,6 +148,15 @@ public class Camera implements Cloneable {
 	// next variables are needed for frustum plane coefficients
 	PVector normal[] = new PVector[6];
 	float dist[] = new float[6];
+	// scratch objects of the per frame computations, see projectedCoordinatesOf
+	// and computeFrustumEquations
+	float xyz[] = new float[3];
+	float orthoWH[] = new float[2];
+	PVector pos = new PVector();
+	PVector viewDir = new PVector();
+	PVector up = new PVector();
+	PVector right = new PVector();
+	PVector center = new PVector();
 
 	/**
 	 * Enumerates the two possible types of Camera.
@@ -409,6 +418,13 @@ public class Camera implements Cloneable {
 				clonedCam.projectionMat = new PMatrix3D(projectionMat);
 			}
 			clonedCam.frm = frm.clone();
+			clonedCam.xyz = new float[3];
+			clonedCam.orthoWH = new float[2];
+			clonedCam.pos = new PVector();
+			clonedCam.viewDir = new PVector();
+			clonedCam.up = new PVector();
+			clonedCam.right = new PVector();
+			clonedCam.center = new PVector();
 			return clonedCam;
 		} catch (CloneNotSupportedException e) {
 			throw new Error("Something went wrong when cloning the Camera");
@@ -433,6 +449,14 @@ public class Camera implements Cloneable {
 		return frame().position();
 	}
 
+	/**
+	 * Fills {@code target} with the {@link #position()} and returns it. If
+	 * {@code target} is {@code null} a new PVector will be created.
+	 */
+	public final PVector position(PVector target) {
+		return frame().position(target);
+	}
+
 	/**
 	 * Sets the Camera {@link #position()} (the eye), defined in the world
 	 * coordinate system.
@@ -456,6 +480,17 @@ public class Camera implements Cloneable {
 		return frame().yAxis();
 	}
 
+	/**
+	 * Fills {@code target} with the {@link #upVector()} and returns it. If
+	 * {@code target} is {@code null} a new PVector will be created.
+	 */
+	public PVector upVector(PVector target) {
+		if (target == null)
+			target = new PVector();
+		target.set(0.0f, 1.0f, 0.0f);
+		return frame().inverseTransformOf(target, target);
+	}
+
 	/**
 	 * Convenience function that simply calls {@code setUpVector(up, true)}.
 	 * 
@@ -515,7 +550,18 @@ public class Camera implements Cloneable {
 	 * frame().inverseTransformOf(new PVector(0.0f, 0.0f, -1.0f))} ).
 	 */
 	public PVector viewDirection() {
-		return frame().inverseTransformOf(new PVector(0.0f, 0.0f, -1.0f));
+		return viewDirection(new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #viewDirection()} and returns it. If
+	 * {@code target} is {@code null} a new PVector will be created.
+	 */
+	public PVector viewDirection(PVector target) {
+		if (target == null)
+			target = new PVector();
+		target.set(0.0f, 0.0f, -1.0f);
+		return frame().inverseTransformOf(target, target);
 	}
 
 	/**
@@ -560,6 +606,17 @@ public class Camera implements Cloneable {
 		return frame().xAxis();
 	}
 
+	/**
+	 * Fills {@code target} with the {@link #rightVector()} and returns it. If
+	 * {@code target} is {@code null} a new PVector will be created.
+	 */
+	public PVector rightVector(PVector target) {
+		if (target == null)
+			target = new PVector();
+		target.set(1.0f, 0.0f, 0.0f);
+		return frame().inverseTransformOf(target, target);
+	}
+
 	/**
 	 * Returns the Camera orientation, defined in the world coordinate system.
 	 * <p>
@@ -1191,9 +1248,12 @@ public class Camera implements Cloneable {
 			PApplet.println("The camera frustum plane equations (needed by distanceToFrustumPlane) may be outdated. Please "
 							+ "enable automatic updates of the equations in your PApplet.setup "
 							+ "with Scene.enableFrustumEquationsUpdate()");
-		PVector myVec = new PVector(fpCoefficients[index][0],
-				fpCoefficients[index][1], fpCoefficients[index][2]);
-		return PVector.dot(pos, myVec) - fpCoefficients[index][3];
+		return distanceToFrustumPlane(index, pos.x, pos.y, pos.z);
+	}
+
+	private float distanceToFrustumPlane(int index, float x, float y, float z) {
+		float[] coef = fpCoefficients[index];
+		return x * coef[0] + y * coef[1] + z * coef[2] - coef[3];
 	}
 
 	/**
@@ -1294,9 +1354,8 @@ public class Camera implements Cloneable {
 		for (int i = 0; i < 6; ++i) {
 			boolean allOut = true;
 			for (int c = 0; c < 8; ++c) {
-				PVector pos = new PVector(((c & 4) != 0) ? p1.x : p2.x,
-						((c & 2) != 0) ? p1.y : p2.y, ((c & 1) != 0) ? p1.z : p2.z);
-				if (distanceToFrustumPlane(i, pos) > 0.0)
+				if (distanceToFrustumPlane(i, ((c & 4) != 0) ? p1.x : p2.x,
+						((c & 2) != 0) ? p1.y : p2.y, ((c & 1) != 0) ? p1.z : p2.z) > 0.0)
 					allInForAllPlanes = false;
 				else
 					allOut = false;
@@ -1429,10 +1488,10 @@ public class Camera implements Cloneable {
 			coef = new float[6][4];
 
 		// Computed once and for all
-		PVector pos = position();
-		PVector viewDir = viewDirection();
-		PVector up = upVector();
-		PVector right = rightVector();
+		position(pos);
+		viewDirection(viewDir);
+		upVector(up);
+		rightVector(right);
 		float posViewDir = PVector.dot(pos, viewDir);
 
 		switch (type()) {
@@ -1440,23 +1499,18 @@ public class Camera implements Cloneable {
 			float hhfov = horizontalFieldOfView() / 2.0f;
 			float chhfov = PApplet.cos(hhfov);
 			float shhfov = PApplet.sin(hhfov);
-			normal[0] = PVector.mult(viewDir, -shhfov);
-			normal[1] = PVector.add(normal[0], PVector.mult(right, chhfov));
-			normal[0] = PVector.add(normal[0], PVector.mult(right, -chhfov));
-			normal[2] = PVector.mult(viewDir, -1);
-			normal[3] = viewDir;
+			normal[0].set(-shhfov * viewDir.x - chhfov * right.x, -shhfov * viewDir.y
+					- chhfov * right.y, -shhfov * viewDir.z - chhfov * right.z);
+			normal[1].set(-shhfov * viewDir.x + chhfov * right.x, -shhfov * viewDir.y
+					+ chhfov * right.y, -shhfov * viewDir.z + chhfov * right.z);
 
 			float hfov = fieldOfView() / 2.0f;
 			float chfov = PApplet.cos(hfov);
 			float shfov = PApplet.sin(hfov);
-			normal[4] = PVector.mult(viewDir, -shfov);
-			normal[5] = PVector.add(normal[4], PVector.mult(up, -chfov));
-			normal[4] = PVector.add(normal[4], PVector.mult(up, chfov));
-
-			for (int i = 0; i < 2; ++i)
-				dist[i] = PVector.dot(pos, normal[i]);
-			for (int j = 4; j < 6; ++j)
-				dist[j] = PVector.dot(pos, normal[j]);
+			normal[4].set(-shfov * viewDir.x + chfov * up.x, -shfov * viewDir.y
+					+ chfov * up.y, -shfov * viewDir.z + chfov * up.z);
+			normal[5].set(-shfov * viewDir.x - chfov * up.x, -shfov * viewDir.y
+					- chfov * up.y, -shfov * viewDir.z - chfov * up.z);
 
 			// Natural equations are:
 			// dist[0,1,4,5] = pos * normal[0,1,4,5];
@@ -1476,26 +1530,25 @@ public class Camera implements Cloneable {
 			break;
 		}
 		case ORTHOGRAPHIC:
-			normal[0] = PVector.mult(right, -1);
-			normal[1] = right;
-			normal[4] = up;
-			normal[5] = PVector.mult(up, -1);
-
-			float[] wh = getOrthoWidthHeight();
-			dist[0] = PVector.dot(PVector.sub(pos, PVector.mult(right, wh[0])),
-					normal[0]);
-			dist[1] = PVector.dot(PVector.add(pos, PVector.mult(right, wh[0])),
-					normal[1]);
-			dist[4] = PVector.dot(PVector.add(pos, PVector.mult(up, wh[1])),
-					normal[4]);
-			dist[5] = PVector.dot(PVector.sub(pos, PVector.mult(up, wh[1])),
-					normal[5]);
+			normal[0].set(-right.x, -right.y, -right.z);
+			normal[1].set(right);
+			normal[4].set(up);
+			normal[5].set(-up.x, -up.y, -up.z);
+
+			float[] wh = getOrthoWidthHeight(orthoWH);
+			// (pos -/+ right * w) * normal[0,1] and (pos +/- up * h) * normal[4,5]
+			float posRight = PVector.dot(pos, right);
+			float posUp = PVector.dot(pos, up);
+			dist[0] = -posRight + wh[0];
+			dist[1] = posRight + wh[0];
+			dist[4] = posUp + wh[1];
+			dist[5] = -posUp + wh[1];
 			break;
 		}
 
 		// Front and far planes are identical for both camera types.
-		normal[2] = PVector.mult(viewDir, -1);
-		normal[3] = viewDir;
+		normal[2].set(-viewDir.x, -viewDir.y, -viewDir.z);
+		normal[3].set(viewDir);
 		dist[2] = -posViewDir - zNear();
 		dist[3] = posViewDir + zFar();
 
@@ -1731,7 +1784,7 @@ public class Camera implements Cloneable {
 	 * Used by {@link #zNear()} and {@link #zFar()} to optimize the Z range.
 	 */
 	public float distanceToSceneCenter() {
-		return PApplet.abs((frame().coordinatesOf(sceneCenter())).z);
+		return PApplet.abs(frame().coordinatesOf(sceneCenter(), center).z);
 	}
 
 	/**
@@ -2267,7 +2320,7 @@ public class Camera implements Cloneable {
 		modelViewMat.m22 = 1.0f - q11 - q00;
 		modelViewMat.m32 = 0.0f;
 
-		PVector t = q.inverseRotate(frame().position());
+		PVector t = q.inverseRotate(frame().position(pos), pos);
 
 		modelViewMat.m03 = -t.x;
 		modelViewMat.m13 = -t.y;
@@ -2303,6 +2356,15 @@ public class Camera implements Cloneable {
 		return frame().coordinatesOf(src);
 	}
 
+	/**
+	 * Fills {@code target} with the {@link #cameraCoordinatesOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created.
+	 */
+	public final PVector cameraCoordinatesOf(PVector src, PVector target) {
+		return frame().coordinatesOf(src, target);
+	}
+
 	/**
 	 * Returns the world coordinates of the point whose position {@code src} is
 	 * defined in the Camera coordinate system.
@@ -2313,6 +2375,15 @@ public class Camera implements Cloneable {
 		return frame().inverseCoordinatesOf(src);
 	}
 
+	/**
+	 * Fills {@code target} with the {@link #worldCoordinatesOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created.
+	 */
+	public PVector worldCoordinatesOf(final PVector src, PVector target) {
+		return frame().inverseCoordinatesOf(src, target);
+	}
+
 	// 10. 2D -> 3D
 
 	/**
@@ -2388,11 +2459,21 @@ public class Camera implements Cloneable {
 	 * @see #unprojectedCoordinatesOf(PVector, Frame)
 	 */
 	public final PVector projectedCoordinatesOf(PVector src, Frame frame) {
-		float xyz[] = new float[3];
-		viewport = getViewport();
+		return projectedCoordinatesOf(src, frame, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #projectedCoordinatesOf(PVector,
+	 * Frame)} of {@code src} and returns it. If {@code target} is {@code null} a
+	 * new PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector projectedCoordinatesOf(PVector src, Frame frame, PVector target) {
+		if (target == null)
+			target = new PVector();
+		getViewport(viewport);
 
 		if (frame != null) {
-			PVector tmp = frame.inverseCoordinatesOf(src);
+			PVector tmp = frame.inverseCoordinatesOf(src, target);
 			project(tmp.x, tmp.y, tmp.z, modelViewMat, projectionMat, viewport, xyz);
 		} else
 			project(src.x, src.y, src.z, modelViewMat, projectionMat, viewport, xyz);
@@ -2400,7 +2481,8 @@ public class Camera implements Cloneable {
   	//lef-handed coordinate system correction
 		xyz[1] = screenHeight() - xyz[1];
 
-		return new PVector((float) xyz[0], (float) xyz[1], (float) xyz[2]);
+		target.set((float) xyz[0], (float) xyz[1], (float) xyz[2]);
+		return target;
 	}
 
 	/**
@@ -52,6 +52,8 @@ public class Frame implements Cloneable {
 		protected Quaternion rot;
 		protected Frame refFrame;
 		protected Constraint constr;
+		// incremented each time the frames sharing this kernel are modified
+		protected int version;
 		
 		public FrameKernel() {
 			trans = new PVector(0, 0, 0);
@@ -127,6 +129,34 @@ public class Frame implements Cloneable {
 	protected List<Frame> linkedFramesList;
 	protected Frame srcFrame;
 
+	// W o r l d   t r a n s f o r m a t i o n   c a c h e
+	// incremented each time any Frame is modified
+	private static int modifications;
+	// modifications when the cache was last checked
+	private int checkedAt;
+	// incremented each time the cache is recomputed
+	private int worldVersion;
+	// what the cache was computed from
+	private FrameKernel cachedKernel;
+	private int cachedKernelVersion;
+	private Frame cachedRefFrame;
+	private int cachedRefVersion;
+	private PVector worldPos;
+	private Quaternion worldOrient;
+	private PMatrix3D worldMat;
+	private boolean worldMatrixIsValid;
+	// owned by the Frame, the cache of a Frame with a reference Frame is
+	// written into them
+	private PVector worldPosBuffer;
+	private Quaternion worldOrientBuffer;
+	// scratch axis used by applyTransformation()
+	private PVector axisBuffer;
+	// scratch deltas of setTranslationWithConstraint() and
+	// setRotationWithConstraint(), deltaTBuffer also holds the local position
+	// of setPositionWithConstraint()
+	private PVector deltaTBuffer;
+	private Quaternion deltaQBuffer;
+
 	/**
 	 * Creates a default Frame.
 	 * <p>
@@ -208,7 +238,15 @@ public class Frame implements Cloneable {
 			clonedFrame.linkedFramesList = new ArrayList<Frame>();
 			Iterator<Frame> iterator = linkedFramesList.iterator();
 			while (iterator.hasNext())
-				clonedFrame.linkedFramesList.add(iterator.next());			
+				clonedFrame.linkedFramesList.add(iterator.next());
+			// the new kernel makes the clone compute its own cache
+			clonedFrame.worldMat = null;
+			clonedFrame.worldMatrixIsValid = false;
+			clonedFrame.worldPosBuffer = null;
+			clonedFrame.worldOrientBuffer = null;
+			clonedFrame.axisBuffer = null;
+			clonedFrame.deltaTBuffer = null;
+			clonedFrame.deltaQBuffer = null;
 			return clonedFrame;
 		} catch (CloneNotSupportedException e) {
 			throw new Error("Something went wrong when cloning the Frame");
@@ -221,6 +259,7 @@ public class Frame implements Cloneable {
 	
 	public void setKernel(FrameKernel k) {
 		krnl = k;
+		modifications++;
 	}
 
 	/**
@@ -327,13 +366,65 @@ public class Frame implements Cloneable {
 	}
 
 	/**
-	 * Resets the cache of all KeyFrameInterpolators' associated with this Frame.
+	 * Resets the cache of all KeyFrameInterpolators' associated with this Frame
+	 * and invalidates the cached world transformation of the Frame (see
+	 * {@link #position()}, {@link #orientation()} and {@link #worldMatrix()}).
 	 */
 	protected void modified() {
-		Iterator<KeyFrameInterpolator> it = list.iterator();
-		while (it.hasNext()) {
-			it.next().invalidateValues();
+		// no Iterator, a Frame is modified every frame
+		for (int i = 0; i < list.size(); i++)
+			list.get(i).invalidateValues();
+		invalidateWorld();
+	}
+
+	/**
+	 * Internal method. Invalidates the cached world transformation of the Frame,
+	 * of the Frames linked with it (they share the {@link #kernel()}) and of all
+	 * the Frames defined in its coordinate system.
+	 */
+	private void invalidateWorld() {
+		kernel().version++;
+		modifications++;
+	}
+
+	/**
+	 * Internal method. Updates the cached world {@link #position()} and
+	 * {@link #orientation()}, used by all the methods converting to and from the
+	 * world coordinate system.
+	 * <p>
+	 * As long as no Frame is {@link #modified()} the cache is returned right
+	 * away. Otherwise it is recomputed, from the (cached) world transformation of
+	 * the {@link #referenceFrame()}, only if the version of the {@link #kernel()}
+	 * or the one of the reference Frame cache changed since it was computed.
+	 */
+	private void updateWorld() {
+		if (checkedAt == modifications && cachedKernel == kernel())
+			return;
+		Frame ref = referenceFrame();
+		if (ref != null)
+			ref.updateWorld();
+		if (cachedKernel != kernel() || cachedKernelVersion != kernel().version
+				|| cachedRefFrame != ref || (ref != null && cachedRefVersion != ref.worldVersion)) {
+			if (ref == null) {
+				worldPos = translation();
+				worldOrient = rotation();
+			} else {
+				if (worldPosBuffer == null) {
+					worldPosBuffer = new PVector();
+					worldOrientBuffer = new Quaternion();
+				}
+				worldOrient = Quaternion.multiply(ref.worldOrient, rotation(), worldOrientBuffer);
+				worldPos = ref.worldOrient.rotate(translation(), worldPosBuffer);
+				worldPos.add(ref.worldPos);
+				cachedRefVersion = ref.worldVersion;
+			}
+			cachedKernel = kernel();
+			cachedKernelVersion = kernel().version;
+			cachedRefFrame = ref;
+			worldMatrixIsValid = false;
+			worldVersion++;
 		}
+		checkedAt = modifications;
 	}
 	
 	/**
@@ -524,11 +615,14 @@ public class Frame implements Cloneable {
 	 * @see #setPositionWithConstraint(PVector)
 	 */
 	public final void setTranslationWithConstraint(PVector translation) {
-		PVector deltaT = PVector.sub(translation, this.translation());
+		if (deltaTBuffer == null)
+			deltaTBuffer = new PVector();
+		PVector deltaT = PVector.sub(translation, this.translation(), deltaTBuffer);
 		if (constraint() != null)
 			deltaT = constraint().constrainTranslation(deltaT, this);
 
 		translation().add(deltaT);
+		modified();
 
 		/**
 		 * translation.x = this.translation().x; translation.y =
@@ -573,7 +667,10 @@ public class Frame implements Cloneable {
 	 * @see #setOrientationWithConstraint(Quaternion)
 	 */
 	public final void setRotationWithConstraint(Quaternion rotation) {
-		Quaternion deltaQ = Quaternion.multiply(this.rotation().inverse(), rotation);
+		if (deltaQBuffer == null)
+			deltaQBuffer = new Quaternion();
+		Quaternion deltaQ = Quaternion.multiply(
+				this.rotation().inverse(deltaQBuffer), rotation, deltaQBuffer);
 		if (constraint() != null)
 			deltaQ = constraint().constrainRotation(deltaQ, this);
 
@@ -581,6 +678,7 @@ public class Frame implements Cloneable {
 
 		rotation().multiply(deltaQ);
 		rotation().normalize();
+		modified();
 		// rotation.x = this.rotation().x;
 		// rotation.y = this.rotation().y;
 		// rotation.z = this.rotation().z;
@@ -642,19 +740,32 @@ public class Frame implements Cloneable {
 	/**
 	 * Returns the orientation of the Frame, defined in the world coordinate
 	 * system.
+	 * <p>
+	 * The orientation is cached until the Frame or one of its reference Frames is
+	 * {@link #modified()}.
 	 * 
 	 * @see #position()
 	 * @see #setOrientation(Quaternion)
 	 * @see #rotation()
 	 */
 	public final Quaternion orientation() {
-		Quaternion res = rotation();
-		Frame fr = referenceFrame();
-		while (fr != null) {
-			res = Quaternion.multiply(fr.rotation(), res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		if (referenceFrame() == null)
+			return rotation();
+		updateWorld();
+		return new Quaternion(worldOrient);
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #orientation()} of the Frame and
+	 * returns it. If {@code target} is {@code null} a new Quaternion will be
+	 * created.
+	 */
+	public final Quaternion orientation(Quaternion target) {
+		if (target == null)
+			target = new Quaternion();
+		updateWorld();
+		target.set(worldOrient);
+		return target;
 	}
 
 	/**
@@ -689,8 +800,12 @@ public class Frame implements Cloneable {
 	 * @see #setTranslationWithConstraint(PVector)
 	 */
 	public final void setPositionWithConstraint(PVector position) {
-		if (referenceFrame() != null)
-			position = referenceFrame().coordinatesOf(position);
+		if (referenceFrame() != null) {
+			if (deltaTBuffer == null)
+				deltaTBuffer = new PVector();
+			// setTranslationWithConstraint() may write the delta over it
+			position = referenceFrame().coordinatesOf(position, deltaTBuffer);
+		}
 
 		setTranslationWithConstraint(position);
 	}
@@ -737,13 +852,28 @@ public class Frame implements Cloneable {
 
 	/**
 	 * Returns the position of the Frame, defined in the world coordinate system.
+	 * <p>
+	 * The position is cached until the Frame or one of its reference Frames is
+	 * {@link #modified()}.
 	 * 
 	 * @see #orientation()
 	 * @see #setPosition(PVector)
 	 * @see #translation()
 	 */
 	public final PVector position() {
-		return inverseCoordinatesOf(new PVector(0, 0, 0));
+		return position(new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #position()} of the Frame and returns
+	 * it. If {@code target} is {@code null} a new PVector will be created.
+	 */
+	public final PVector position(PVector target) {
+		if (target == null)
+			target = new PVector();
+		updateWorld();
+		target.set(worldPos.x, worldPos.y, worldPos.z);
+		return target;
 	}
 
 	/**
@@ -860,6 +990,7 @@ public class Frame implements Cloneable {
 
 		this.kernel().rotation().multiply(rotation);
 		this.kernel().rotation().normalize(); // Prevents numerical drift
+		invalidateWorld();
 
 		Quaternion q = new Quaternion(inverseTransformOf(rotation.axis()), rotation.angle());
 		PVector t = PVector.add(point, q.rotate(PVector.sub(position(), point)));
@@ -911,6 +1042,7 @@ public class Frame implements Cloneable {
 		}
 		this.kernel().rotation().multiply(q);
 		this.kernel().rotation().normalize(); // Prevents numerical drift
+		invalidateWorld();
 
 		q = new Quaternion(inverseTransformOf(rotation.axis()), rotation.angle());
 		PVector t = PVector.add(point, q.rotate(PVector.sub(position(), point)));
@@ -1091,10 +1223,20 @@ public class Frame implements Cloneable {
 	 * coordinates.
 	 */
 	public final PVector coordinatesOf(PVector src) {
-		if (referenceFrame() != null)
-			return localCoordinatesOf(referenceFrame().coordinatesOf(src));
-		else
-			return localCoordinatesOf(src);
+		return coordinatesOf(src, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #coordinatesOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector coordinatesOf(PVector src, PVector target) {
+		if (target == null)
+			target = new PVector();
+		updateWorld();
+		target.set(src.x - worldPos.x, src.y - worldPos.y, src.z - worldPos.z);
+		return worldOrient.inverseRotate(target, target);
 	}
 
 	/**
@@ -1106,13 +1248,19 @@ public class Frame implements Cloneable {
 	 * coordinates.
 	 */
 	public final PVector inverseCoordinatesOf(PVector src) {
-		Frame fr = this;
-		PVector res = src;
-		while (fr != null) {
-			res = fr.localInverseCoordinatesOf(res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		return inverseCoordinatesOf(src, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #inverseCoordinatesOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector inverseCoordinatesOf(PVector src, PVector target) {
+		updateWorld();
+		target = worldOrient.rotate(src, target);
+		target.add(worldPos);
+		return target;
 	}
 
 	/**
@@ -1126,7 +1274,20 @@ public class Frame implements Cloneable {
 	 * @see #localTransformOf(PVector)
 	 */
 	public final PVector localCoordinatesOf(PVector src) {
-		return rotation().inverseRotate(PVector.sub(src, translation()));
+		return localCoordinatesOf(src, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #localCoordinatesOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector localCoordinatesOf(PVector src, PVector target) {
+		if (target == null)
+			target = new PVector();
+		PVector t = translation();
+		target.set(src.x - t.x, src.y - t.y, src.z - t.z);
+		return rotation().inverseRotate(target, target);
 	}
 
 	/**
@@ -1139,7 +1300,18 @@ public class Frame implements Cloneable {
 	 * @see #localInverseTransformOf(PVector)
 	 */
 	public final PVector localInverseCoordinatesOf(PVector src) {
-		return PVector.add(rotation().rotate(src), translation());
+		return localInverseCoordinatesOf(src, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #localInverseCoordinatesOf(PVector)}
+	 * of {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector localInverseCoordinatesOf(PVector src, PVector target) {
+		target = rotation().rotate(src, target);
+		target.add(translation());
+		return target;
 	}
 
 	/**
@@ -1153,10 +1325,8 @@ public class Frame implements Cloneable {
 	public final PVector coordinatesOfFrom(PVector src, Frame from) {
 		if (this == from)
 			return src;
-		else if (referenceFrame() != null)
-			return localCoordinatesOf(referenceFrame().coordinatesOfFrom(src, from));
 		else
-			return localCoordinatesOf(from.inverseCoordinatesOf(src));
+			return coordinatesOf(from.inverseCoordinatesOf(src));
 	}
 
 	/**
@@ -1167,20 +1337,11 @@ public class Frame implements Cloneable {
 	 * transformation.
 	 */
 	public final PVector coordinatesOfIn(PVector src, Frame in) {
-		Frame fr = this;
-		PVector res = src;
-		while ((fr != null) && (fr != in)) {
-			res = fr.localInverseCoordinatesOf(res);
-			fr = fr.referenceFrame();
-		}
-
-		if (fr != in)
-			// in was not found in the branch of this, res is now expressed in
-			// the world
-			// coordinate system. Simply convert to in coordinate system.
-			res = in.coordinatesOf(res);
-
-		return res;
+		if (this == in)
+			return src;
+		else
+			// both world transformations are cached
+			return in.coordinatesOf(inverseCoordinatesOf(src));
 	}
 
 	/**
@@ -1193,11 +1354,17 @@ public class Frame implements Cloneable {
 	 * account).
 	 */
 	public final PVector transformOf(PVector src) {
-		if (referenceFrame() != null)
-			return localTransformOf(referenceFrame().transformOf(src));
-		else
-			return localTransformOf(src);
+		return transformOf(src, new PVector());
+	}
 
+	/**
+	 * Fills {@code target} with the {@link #transformOf(PVector)} of {@code src}
+	 * and returns it. If {@code target} is {@code null} a new PVector will be
+	 * created. {@code target} may be {@code src}.
+	 */
+	public final PVector transformOf(PVector src, PVector target) {
+		updateWorld();
+		return worldOrient.inverseRotate(src, target);
 	}
 
 	/**
@@ -1209,13 +1376,17 @@ public class Frame implements Cloneable {
 	 * of 3D vectors.
 	 */
 	public final PVector inverseTransformOf(PVector src) {
-		Frame fr = this;
-		PVector res = src;
-		while (fr != null) {
-			res = fr.localInverseTransformOf(res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		return inverseTransformOf(src, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #inverseTransformOf(PVector)} of
+	 * {@code src} and returns it. If {@code target} is {@code null} a new
+	 * PVector will be created. {@code target} may be {@code src}.
+	 */
+	public final PVector inverseTransformOf(PVector src, PVector target) {
+		updateWorld();
+		return worldOrient.rotate(src, target);
 	}
 
 	/**
@@ -1336,10 +1507,8 @@ public class Frame implements Cloneable {
 	public final PVector transformOfFrom(PVector src, Frame from) {
 		if (this == from)
 			return src;
-		else if (referenceFrame() != null)
-			return localTransformOf(referenceFrame().transformOfFrom(src, from));
 		else
-			return localTransformOf(from.inverseTransformOf(src));
+			return transformOf(from.inverseTransformOf(src));
 	}
 
 	/**
@@ -1351,20 +1520,11 @@ public class Frame implements Cloneable {
 	 * transformation.
 	 */
 	public final PVector transformOfIn(PVector src, Frame in) {
-		Frame fr = this;
-		PVector res = src;
-		while ((fr != null) && (fr != in)) {
-			res = fr.localInverseTransformOf(res);
-			fr = fr.referenceFrame();
-		}
-
-		if (fr != in)
-			// in was not found in the branch of this, res is now expressed in
-			// the world
-			// coordinate system. Simply convert to in coordinate system.
-			res = in.transformOf(res);
-
-		return res;
+		if (this == in)
+			return src;
+		else
+			// both world transformations are cached
+			return in.transformOf(inverseTransformOf(src));
 	}
 
 	/**
@@ -1418,9 +1578,15 @@ public class Frame implements Cloneable {
 	 * @see #applyTransformation(PApplet)
 	 */
 	public final PMatrix3D matrix() {
-		PMatrix3D pM = new PMatrix3D();
+		return matrix(new PMatrix3D());
+	}
 
-		pM = kernel().rotation().matrix();
+	/**
+	 * Fills {@code target} with the {@link #matrix()} of the Frame and returns
+	 * it. If {@code target} is {@code null} a new PMatrix3D will be created.
+	 */
+	public final PMatrix3D matrix(PMatrix3D target) {
+		PMatrix3D pM = kernel().rotation().matrix(target);
 
 		pM.m03 = kernel().translation().x;
 		pM.m13 = kernel().translation().y;
@@ -1485,7 +1651,10 @@ public class Frame implements Cloneable {
 	 */
 	public void applyTransformation(PGraphics3D p3d) {
 		p3d.translate(translation().x, translation().y, translation().z);
-		p3d.rotate(rotation().angle(), rotation().axis().x, rotation().axis().y, rotation().axis().z);
+		if (axisBuffer == null)
+			axisBuffer = new PVector();
+		PVector axis = rotation().axis(axisBuffer);
+		p3d.rotate(rotation().angle(), axis.x, axis.y, axis.z);
 	}
 
 	/**
@@ -1511,17 +1680,21 @@ public class Frame implements Cloneable {
 	 * <p>
 	 * <b>Attention:</b> The result is only valid until the next call to
 	 * {@link #matrix()} or {@code worldMatrix()}. Use it immediately (as above).
+	 * The returned matrix is cached until the Frame or one of its reference
+	 * Frames is {@link #modified()}: do not modify it.
 	 * <p>
 	 * <b>Note:</b> The scaling factor of the 4x4 matrix is 1.0.
 	 */
 	public final PMatrix3D worldMatrix() {
-		if (referenceFrame() != null) {
-			final Frame fr = new Frame();
-			fr.setTranslation(position());
-			fr.setRotation(orientation());
-			return fr.matrix();
-		} else
-			return matrix();
+		updateWorld();
+		if (!worldMatrixIsValid) {
+			worldMat = worldOrient.matrix(worldMat);
+			worldMat.m03 = worldPos.x;
+			worldMat.m13 = worldPos.y;
+			worldMat.m23 = worldPos.z;
+			worldMatrixIsValid = true;
+		}
+		return worldMat;
 	}
 
 	/**
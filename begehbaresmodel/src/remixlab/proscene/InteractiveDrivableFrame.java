@@ -27,8 +27,6 @@ package remixlab.proscene;
 
 import processing.core.*;
 
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * The InteractiveDrivableFrame represents an InteractiveFrame that can "fly" in
@@ -43,7 +41,7 @@ import java.util.TimerTask;
 public class InteractiveDrivableFrame extends InteractiveFrame {
 	protected float flySpd;
 	protected float drvSpd;
-	protected Timer flyTimer;
+	protected TimerJob flyJob;
 	protected PVector flyUpVec;
 	protected PVector flyDisp;
 
@@ -61,7 +59,11 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 
 		setFlySpeed(0.0f);
 
-    flyTimer = new Timer();
+		flyJob = new TimerJob() {
+			public void execute() {
+				flyUpdate();
+			}
+		};
 	}
 
 	/**
@@ -73,11 +75,15 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 	 * @see remixlab.proscene.InteractiveFrame#clone()
 	 */
 	public InteractiveDrivableFrame clone() {
-		InteractiveDrivableFrame clonedIAvtrFrame = (InteractiveDrivableFrame) super
+		final InteractiveDrivableFrame clonedIAvtrFrame = (InteractiveDrivableFrame) super
 				.clone();
 		clonedIAvtrFrame.flyUpVec = new PVector(flyUpVec.x, flyUpVec.y, flyUpVec.z);
 		clonedIAvtrFrame.flyDisp = new PVector(flyDisp.x, flyDisp.y, flyDisp.z);
-    clonedIAvtrFrame.flyTimer = new Timer();
+		clonedIAvtrFrame.flyJob = new TimerJob() {
+			public void execute() {
+				clonedIAvtrFrame.flyUpdate();
+			}
+		};
 		return clonedIAvtrFrame;
 	}
 
@@ -181,17 +187,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		case MOVE_FORWARD:
 		case MOVE_BACKWARD:
 		case DRIVE:
-			if(flyTimer != null) {
-				flyTimer.cancel();
-				flyTimer.purge();
-			}
-			flyTimer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					flyUpdate();
-				}
-			};
-			flyTimer.scheduleAtFixedRate(timerTask, 0, 10);
+			scene.startTimerJob(flyJob, 10);
 			break;
 		default:
 			break;
@@ -288,10 +284,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		if ((action == Scene.MouseAction.MOVE_FORWARD)
 				|| (action == Scene.MouseAction.MOVE_BACKWARD)
 				|| (action == Scene.MouseAction.DRIVE)) {
-			if(flyTimer != null) {
-				flyTimer.cancel();
-				flyTimer.purge();
-			}
+			scene.stopTimerJob(flyJob);
 		}
 
 		super.mouseReleased(eventPoint, camera);
@@ -341,17 +334,7 @@ public class InteractiveDrivableFrame extends InteractiveFrame {
 		int finalDrawAfterWheelEventDelay = 400;
 		
 	  // Starts (or prolungates) the timer.
-		if(flyTimer != null) {
-			flyTimer.cancel();
-			flyTimer.purge();
-		}
-		flyTimer=new Timer();
-		TimerTask timerTask = new TimerTask() {
-			public void run() {
-				flyUpdate();
-			}
-		};
-		flyTimer.schedule(timerTask, finalDrawAfterWheelEventDelay);
+		scene.startSingleShotTimerJob(flyJob, finalDrawAfterWheelEventDelay);
 
 		action = Scene.MouseAction.NO_MOUSE_ACTION;
 	}
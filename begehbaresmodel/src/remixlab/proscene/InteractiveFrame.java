@@ -55,7 +55,7 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	private float mouseSpeed;
 	// spinning stuff:
 	private boolean isSpng;
-	private Timer spngTimer;
+	private TimerJob spngJob;
 	private int startedTime;
 	private int delay;
 
@@ -115,7 +115,11 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 		prevConstraint = null;
 		startedTime = 0;
 		// delay = 10;
-		spngTimer = new Timer();
+		spngJob = new TimerJob() {
+			public void execute() {
+				spin();
+			}
+		};
 	}
 
 	/**
@@ -153,6 +157,11 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 		isSpng = false;
 		prevConstraint = null;
 		startedTime = 0;
+		spngJob = new TimerJob() {
+			public void execute() {
+				spin();
+			}
+		};
 
 		list = new ArrayList<KeyFrameInterpolator>();
 		Iterator<KeyFrameInterpolator> it = iFrame.listeners().iterator();
@@ -189,8 +198,12 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * @see remixlab.proscene.Frame#clone()
 	 */
 	public InteractiveFrame clone() {
-		InteractiveFrame clonedIFrame = (InteractiveFrame) super.clone();
-		clonedIFrame.spngTimer = new Timer();
+		final InteractiveFrame clonedIFrame = (InteractiveFrame) super.clone();
+		clonedIFrame.spngJob = new TimerJob() {
+			public void execute() {
+				clonedIFrame.spin();
+			}
+		};
 		return clonedIFrame;
 	}
 
@@ -442,40 +455,27 @@ public class InteractiveFrame extends Frame implements MouseGrabbable, Cloneable
 	 * {@link #isSpinning()} will return {@code false} after this call.
 	 */
 	public final void stopSpinning() {
-		if(spngTimer!=null) {
-			spngTimer.cancel();
-			spngTimer.purge();
-		}
+		scene.stopTimerJob(spngJob);
 		isSpng = false;
 	}
 
 	/**
 	 * Starts the spinning of the InteractiveFrame.
 	 * <p>
-	 * This method starts a timer that will call {@link #spin()} every {@code
-	 * updateInterval} milliseconds. The InteractiveFrame {@link #isSpinning()}
+	 * This method starts a timer job at the {@link #scene} that will call
+	 * {@link #spin()} every {@code updateInterval} milliseconds (see
+	 * {@link remixlab.proscene.Scene#startTimerJob(TimerJob, long)}). The InteractiveFrame {@link #isSpinning()}
 	 * until you call {@link #stopSpinning()}.
 	 */
 	public void startSpinning(int updateInterval) {
 		isSpng = true;
-		if(updateInterval>0) {
-			if(spngTimer!=null) {
-				spngTimer.cancel();
-				spngTimer.purge();
-			}
-			spngTimer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					spin();
-				}
-			};
-			spngTimer.scheduleAtFixedRate(timerTask, 0, updateInterval);
-		}
+		if(updateInterval>0)
+			scene.startTimerJob(spngJob, updateInterval);
 	}
 
 	/**
 	 * Rotates the InteractiveFrame by its {@link #spinningQuaternion()}. Called
-	 * by a timer when the InteractiveFrame {@link #isSpinning()}.
+	 * by a timer job when the InteractiveFrame {@link #isSpinning()}.
 	 */
 	public void spin() {
 		rotate(spinningQuaternion());
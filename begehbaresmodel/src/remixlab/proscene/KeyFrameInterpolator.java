@@ -192,8 +192,7 @@ public class KeyFrameInterpolator implements Cloneable {
 	private Frame myFrame;// needed for drawPath
 
 	// R h y t h m
-	private Timer timer;
-  //private TimerTask timerTask;
+	private TimerJob timerJob;
 	private int period;
 	private float interpolationTm;
 	private float interpolationSpd;
@@ -208,6 +207,9 @@ public class KeyFrameInterpolator implements Cloneable {
 	private boolean currentFrmValid;
 	private boolean splineCacheIsValid;
 	private PVector v1, v2;
+	// interpolated values, passed to the frame every update
+	private PVector interpolatedPos = new PVector();
+	private Quaternion interpolatedQuat = new Quaternion();
 
   //S C E N E
   public Scene scene;
@@ -255,7 +257,11 @@ public class KeyFrameInterpolator implements Cloneable {
 		currentFrame2 = keyFr.listIterator();
 		currentFrame3 = keyFr.listIterator();
 		
-		timer = new Timer();
+		timerJob = new TimerJob() {
+			public void execute() {
+				update();
+			}
+		};
 	}
 
 	/**
@@ -276,8 +282,15 @@ public class KeyFrameInterpolator implements Cloneable {
 			clonedKfi.currentFrame1 = keyFr.listIterator(currentFrame1.nextIndex());
 			clonedKfi.currentFrame2 = keyFr.listIterator(currentFrame2.nextIndex());
 			clonedKfi.currentFrame3 = keyFr.listIterator(currentFrame3.nextIndex());
-			//next line added when migrating to java.util.Timer
-			clonedKfi.timer = new Timer();
+			// the job of this interpolator would update this one's frame
+			final KeyFrameInterpolator kfi = clonedKfi;
+			clonedKfi.timerJob = new TimerJob() {
+				public void execute() {
+					kfi.update();
+				}
+			};
+			clonedKfi.interpolatedPos = new PVector();
+			clonedKfi.interpolatedQuat = new Quaternion();
 			return clonedKfi;
 		} catch (CloneNotSupportedException e) {
 			throw new Error(
@@ -492,9 +505,10 @@ public class KeyFrameInterpolator implements Cloneable {
 	/**
 	 * Starts the interpolation process.
 	 * <p>
-	 * A timer is started with an {@link #interpolationPeriod()} period that
-	 * updates the {@link #frame()}'s position and orientation.
-	 * {@link #interpolationIsStarted()} will return {@code true} until
+	 * A timer job is started at the {@link #scene} (see
+	 * {@link remixlab.proscene.Scene#startTimerJob(TimerJob, long)}) with an
+	 * {@link #interpolationPeriod()} period that updates the {@link #frame()}'s
+	 * position and orientation. {@link #interpolationIsStarted()} will return {@code true} until
 	 * {@link #stopInterpolation()} or {@link #toggleInterpolation()} is called.
 	 * <p>
 	 * If {@code period} is positive, it is set as the new
@@ -524,17 +538,7 @@ public class KeyFrameInterpolator implements Cloneable {
 			if ((interpolationSpeed() < 0.0)
 					&& (interpolationTime() <= keyFr.get(0).time()))
 				setInterpolationTime(keyFr.get(keyFr.size() - 1).time());
-			if(timer != null) {
-				timer.cancel();
-				timer.purge();
-			}
-			timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					update();
-				}
-			};
-			timer.scheduleAtFixedRate(timerTask, 0, interpolationPeriod());
+			scene.startTimerJob(timerJob, interpolationPeriod());
 
 			interpolationStrt = true;
 			update();
@@ -546,10 +550,7 @@ public class KeyFrameInterpolator implements Cloneable {
 	 * {@link #interpolationIsStarted()} and {@link #toggleInterpolation()}.
 	 */
 	public void stopInterpolation() {
-		if(timer != null) {
-			timer.cancel();
-			timer.purge();
-		}
+		scene.stopTimerJob(timerJob);
 		interpolationStrt = false;
 	}
 
@@ -1020,14 +1021,17 @@ public class KeyFrameInterpolator implements Cloneable {
 		// (1.0-alpha)*(currentFrame1->peekNext()->position());
 		// Vec pos = currentFrame_[1]->peekNext()->position() + alpha *
 		// (currentFrame_[1]->peekNext()->tgP() + alpha * (v1+alpha*v2));
-		PVector pos = PVector.add(keyFr.get(currentFrame1.nextIndex()).position(),
-				PVector.mult(PVector.add(keyFr.get(currentFrame1.nextIndex()).tgP(),
-						PVector.mult(PVector.add(v1, PVector.mult(v2, alpha)), alpha)),
-						alpha));
-		Quaternion q = Quaternion.squad(keyFr.get(currentFrame1.nextIndex())
-				.orientation(), keyFr.get(currentFrame1.nextIndex()).tgQ(), keyFr.get(
-				currentFrame2.nextIndex()).tgQ(), keyFr.get(currentFrame2.nextIndex())
-				.orientation(), alpha);
+		// the frame does not keep pos and q, they are reused every update
+		KeyFrame kf1 = keyFr.get(currentFrame1.nextIndex());
+		KeyFrame kf2 = keyFr.get(currentFrame2.nextIndex());
+		PVector p1 = kf1.position();
+		PVector tg1 = kf1.tgP();
+		PVector pos = interpolatedPos;
+		pos.set(p1.x + alpha * (tg1.x + alpha * (v1.x + alpha * v2.x)), p1.y
+				+ alpha * (tg1.y + alpha * (v1.y + alpha * v2.y)), p1.z + alpha
+				* (tg1.z + alpha * (v1.z + alpha * v2.z)));
+		Quaternion q = Quaternion.squad(kf1.orientation(), kf1.tgQ(), kf2.tgQ(),
+				kf2.orientation(), alpha, interpolatedQuat);
 
 		frame().setPositionWithConstraint(pos);
 		frame().setRotationWithConstraint(q);
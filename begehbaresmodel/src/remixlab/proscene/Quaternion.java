@@ -313,12 +313,34 @@ public class Quaternion implements PConstants {
 	 *          the second Quaternion
 	 */
 	public final static Quaternion multiply(Quaternion q1, Quaternion q2) {
+		return multiply(q1, q2, new Quaternion());
+	}
+
+	/**
+	 * Fills {@code target} with the product of quaternions {@code q1} and
+	 * {@code q2} and returns it. If {@code target} is {@code null} a new
+	 * Quaternion will be created. {@code target} may be one of the arguments.
+	 * 
+	 * @param q1
+	 *          the first Quaternion
+	 * @param q2
+	 *          the second Quaternion
+	 * @param target
+	 *          the Quaternion to fill
+	 */
+	public final static Quaternion multiply(Quaternion q1, Quaternion q2, Quaternion target) {
+		if (target == null)
+			target = new Quaternion();
 		float x, y, z, w;
 		w = q1.w * q2.w - q1.x * q2.x - q1.y * q2.y - q1.z * q2.z;
 		x = q1.w * q2.x + q2.w * q1.x + q1.y * q2.z - q1.z * q2.y;
 		y = q1.w * q2.y + q2.w * q1.y - q1.x * q2.z + q1.z * q2.x;
 		z = q1.w * q2.z + q2.w * q1.z + q1.x * q2.y - q1.y * q2.x;
-		return new Quaternion(x, y, z, w);
+		target.x = x;
+		target.y = y;
+		target.z = z;
+		target.w = w;
+		return target;
 	}
 
 	/**
@@ -335,6 +357,15 @@ public class Quaternion implements PConstants {
 		return this.rotate(v);
 	}
 
+	/**
+	 * Same as {@code this.rotate(v, target).}
+	 * 
+	 * @see #rotate(PVector, PVector)
+	 */
+	public final PVector multiply(PVector v, PVector target) {
+		return this.rotate(v, target);
+	}
+
 	/**
 	 * Returns the image of {@code v} by the rotation {@code q1}. Same as {@code
 	 * q1.rotate(v).}
@@ -394,9 +425,22 @@ public class Quaternion implements PConstants {
 	 * @see #invert()
 	 */
 	public final Quaternion inverse() {
-		Quaternion tempQuat = new Quaternion(this);
-		tempQuat.invert();
-		return tempQuat;
+		return inverse(new Quaternion());
+	}
+
+	/**
+	 * Fills {@code target} with the inverse Quaternion and returns it. If
+	 * {@code target} is {@code null} a new Quaternion will be created.
+	 * {@code target} may be this Quaternion.
+	 * 
+	 * @see #inverse()
+	 */
+	public final Quaternion inverse(Quaternion target) {
+		if (target == null)
+			target = new Quaternion();
+		target.set(this);
+		target.invert();
+		return target;
 	}
 
 	/**
@@ -454,6 +498,22 @@ public class Quaternion implements PConstants {
 	 *          the PVector
 	 */
 	public final PVector rotate(PVector v) {
+		return rotate(v, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the image of {@code v} by the Quaternion
+	 * rotation and returns it. If {@code target} is {@code null} a new PVector
+	 * will be created. {@code target} may be {@code v}.
+	 * 
+	 * @param v
+	 *          the PVector
+	 * @param target
+	 *          the PVector to fill
+	 */
+	public final PVector rotate(PVector v, PVector target) {
+		if (target == null)
+			target = new PVector();
 		float q00 = 2.0f * x * x;
 		float q11 = 2.0f * y * y;
 		float q22 = 2.0f * z * z;
@@ -467,10 +527,11 @@ public class Quaternion implements PConstants {
 
 		float q23 = 2.0f * z * w;
 
-		return new PVector((1.0f - q11 - q22) * v.x + (q01 - q23) * v.y
+		target.set((1.0f - q11 - q22) * v.x + (q01 - q23) * v.y
 				+ (q02 + q13) * v.z, (q01 + q23) * v.x + (1.0f - q22 - q00) * v.y
 				+ (q12 - q03) * v.z, (q02 - q13) * v.x + (q12 + q03) * v.y
 				+ (1.0f - q11 - q00) * v.z);
+		return target;
 	}
 
 	/**
@@ -483,9 +544,48 @@ public class Quaternion implements PConstants {
 	 *          the PVector
 	 */
 	public final PVector inverseRotate(PVector v) {
-		Quaternion tempQuat = new Quaternion(x, y, z, w);
-		tempQuat.invert();
-		return tempQuat.rotate(v);
+		return inverseRotate(v, new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the image of {@code v} by the Quaternion
+	 * {@link #inverse()} rotation and returns it. If {@code target} is
+	 * {@code null} a new PVector will be created. {@code target} may be
+	 * {@code v}.
+	 * 
+	 * @param v
+	 *          the PVector
+	 * @param target
+	 *          the PVector to fill
+	 */
+	public final PVector inverseRotate(PVector v, PVector target) {
+		if (target == null)
+			target = new PVector();
+		// same as inverse().rotate(v), without the temporary Quaternion
+		float sqNorm = squaredNorm(this);
+		float ix = -x / sqNorm;
+		float iy = -y / sqNorm;
+		float iz = -z / sqNorm;
+		float iw = w / sqNorm;
+
+		float q00 = 2.0f * ix * ix;
+		float q11 = 2.0f * iy * iy;
+		float q22 = 2.0f * iz * iz;
+
+		float q01 = 2.0f * ix * iy;
+		float q02 = 2.0f * ix * iz;
+		float q03 = 2.0f * ix * iw;
+
+		float q12 = 2.0f * iy * iz;
+		float q13 = 2.0f * iy * iw;
+
+		float q23 = 2.0f * iz * iw;
+
+		target.set((1.0f - q11 - q22) * v.x + (q01 - q23) * v.y
+				+ (q02 + q13) * v.z, (q01 + q23) * v.x + (1.0f - q22 - q00) * v.y
+				+ (q12 - q03) * v.z, (q02 - q13) * v.x + (q12 + q03) * v.y
+				+ (1.0f - q11 - q00) * v.z);
+		return target;
 	}
 
 	/**
@@ -773,7 +873,21 @@ public class Quaternion implements PConstants {
 	 * @see #angle()
 	 */
 	public final PVector axis() {
-		PVector res = new PVector(this.x, this.y, this.z);
+		return axis(new PVector());
+	}
+
+	/**
+	 * Fills {@code target} with the normalized {@link #axis()} of the Quaternion
+	 * and returns it. If {@code target} is {@code null} a new PVector will be
+	 * created.
+	 * 
+	 * @see #axis()
+	 */
+	public final PVector axis(PVector target) {
+		if (target == null)
+			target = new PVector();
+		PVector res = target;
+		res.set(this.x, this.y, this.z);
 		float sinus = res.mag();
 		if (sinus > 1E-8f)
 			res.div(sinus);
@@ -821,6 +935,19 @@ public class Quaternion implements PConstants {
 	 * @see #rotationMatrix()
 	 */
 	public final PMatrix3D matrix() {
+		return matrix(new PMatrix3D());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #matrix()} of the Quaternion and
+	 * returns it. If {@code target} is {@code null} a new PMatrix3D will be
+	 * created.
+	 * 
+	 * @see #matrix()
+	 */
+	public final PMatrix3D matrix(PMatrix3D target) {
+		if (target == null)
+			target = new PMatrix3D();
 
 		float q00 = 2.0f * this.x * this.x;
 		float q11 = 2.0f * this.y * this.y;
@@ -856,8 +983,9 @@ public class Quaternion implements PConstants {
 		float m23 = 0.0f;
 		float m33 = 1.0f;
 
-		return new PMatrix3D(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22,
+		target.set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22,
 				m23, m30, m31, m32, m33);
+		return target;
 	}
 
 	/**
@@ -972,8 +1100,31 @@ public class Quaternion implements PConstants {
 	 */
 	public static final Quaternion slerp(Quaternion a, Quaternion b, float t,
 			boolean allowFlip) {
+		return slerp(a, b, t, allowFlip, new Quaternion());
+	}
+
+	/**
+	 * Fills {@code target} with the slerp interpolation of quaternions {@code a}
+	 * and {@code b}, at time {@code t}, and returns it. If {@code target} is
+	 * {@code null} a new Quaternion will be created. {@code target} may be one
+	 * of the arguments.
+	 * <p>
+	 * See {@link #slerp(Quaternion, Quaternion, float, boolean)} for details.
+	 */
+	public static final Quaternion slerp(Quaternion a, Quaternion b, float t,
+			boolean allowFlip, Quaternion target) {
+		if (target == null)
+			target = new Quaternion();
+		return slerp(a.x, a.y, a.z, a.w, b.x, b.y, b.z, b.w, t, allowFlip, target);
+	}
+
+	// slerp of the quaternions given by their coordinates, used to chain slerps
+	// in target
+	private static final Quaternion slerp(float ax, float ay, float az, float aw,
+			float bx, float by, float bz, float bw, float t, boolean allowFlip,
+			Quaternion target) {
 		// Warning: this method should not normalize the Quaternion
-		float cosAngle = Quaternion.dotProduct(a, b);
+		float cosAngle = ax * bx + ay * by + az * bz + aw * bw;
 
 		float c1, c2;
 		// Linear interpolation for close orientations
@@ -992,8 +1143,11 @@ public class Quaternion implements PConstants {
 		if (allowFlip && (cosAngle < 0.0))
 			c1 = -c1;
 
-		return new Quaternion(c1 * a.x + c2 * b.x, c1 * a.y + c2 * b.y, c1 * a.z
-				+ c2 * b.z, c1 * a.w + c2 * b.w, false);
+		target.x = c1 * ax + c2 * bx;
+		target.y = c1 * ay + c2 * by;
+		target.z = c1 * az + c2 * bz;
+		target.w = c1 * aw + c2 * bw;
+		return target;
 	}
 
 	/**
@@ -1019,9 +1173,27 @@ public class Quaternion implements PConstants {
 	 */
 	public static final Quaternion squad(Quaternion a, Quaternion tgA,
 			Quaternion tgB, Quaternion b, float t) {
-		Quaternion ab = Quaternion.slerp(a, b, t);
-		Quaternion tg = Quaternion.slerp(tgA, tgB, t, false);
-		return Quaternion.slerp(ab, tg, 2.0f * t * (1.0f - t), false);
+		return squad(a, tgA, tgB, b, t, new Quaternion());
+	}
+
+	/**
+	 * Fills {@code target} with the {@link #squad(Quaternion, Quaternion,
+	 * Quaternion, Quaternion, float)} interpolation and returns it. If
+	 * {@code target} is {@code null} a new Quaternion will be created.
+	 * {@code target} may be one of the arguments.
+	 */
+	public static final Quaternion squad(Quaternion a, Quaternion tgA,
+			Quaternion tgB, Quaternion b, float t, Quaternion target) {
+		if (target == null)
+			target = new Quaternion();
+		float tgAx = tgA.x, tgAy = tgA.y, tgAz = tgA.z, tgAw = tgA.w;
+		float tgBx = tgB.x, tgBy = tgB.y, tgBz = tgB.z, tgBw = tgB.w;
+		// ab, kept in local variables while target holds tg
+		Quaternion.slerp(a, b, t, true, target);
+		float abx = target.x, aby = target.y, abz = target.z, abw = target.w;
+		Quaternion.slerp(tgAx, tgAy, tgAz, tgAw, tgBx, tgBy, tgBz, tgBw, t, false, target);
+		return Quaternion.slerp(abx, aby, abz, abw, target.x, target.y, target.z,
+				target.w, 2.0f * t * (1.0f - t), false, target);
 	}
 
 	/**
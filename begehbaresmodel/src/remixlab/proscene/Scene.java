@@ -33,8 +33,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * A 3D interactive Processing scene.
@@ -466,6 +464,10 @@ public class Scene implements PConstants {
 	public boolean animatedFrameWasTriggered;
 	private float animationPeriod;
 
+	// T I M E R S
+	protected List<TimerJob> timerPool;
+	private TimerJob timerFlagJob;
+
 	// R E G I S T E R   D R A W   A N D   A N I M A T I O N   M E T H O D S
 	// Draw
 	/** The object to handle the draw event */
@@ -549,6 +551,14 @@ public class Scene implements PConstants {
 		
 		devices = new ArrayList<HIDevice>();
 
+		//timer pool, before the camera creates its interpolators
+		timerPool = new ArrayList<TimerJob>();
+		timerFlagJob = new TimerJob() {
+			public void execute() {
+				unSetTimerFlag();
+			}
+		};
+
 		gProfile = new Bindings<KeyboardShortcut, KeyboardAction>(this);
 		pathKeys = new Bindings<Integer, Integer>(this);		
 		setDefaultShortcuts();
@@ -1217,12 +1227,15 @@ public class Scene implements PConstants {
 	 * method. This method is registered at the PApplet and hence you don't need
 	 * to call it.
 	 * <p>
-	 * Sets the processing camera parameters from {@link #camera()} and updates
+	 * Executes the timer jobs that are due (see {@link #handleTimers()}), sets
+	 * the processing camera parameters from {@link #camera()} and updates
 	 * the frustum planes equations if {@link #enableFrustumEquationsUpdate(boolean)}
 	 * has been set to {@code true}.
 	 */
 	public void pre() {
 		if (isOffscreen()) return;
+
+		handleTimers();
 		
 		// handle possible resize events
 		// weird: we need to bypass the handling of a resize event when running the
@@ -1357,6 +1370,7 @@ public class Scene implements PConstants {
 								+ "endDraw() and they cannot be nested. Check your implementation!");
 			
 			beginOffScreenDrawingCalls++;
+			handleTimers();
 			if ((currentCameraProfile().mode() == CameraProfile.Mode.THIRD_PERSON)
 					&& (!camera().anyInterpolationIsStarted())) {
 				camera().setPosition(avatar().cameraPosition());
@@ -2508,7 +2522,7 @@ public class Scene implements PConstants {
 	}	
 
 	/**
-	 * Called from the timer to stop displaying the point under pixel and arcball
+	 * Called from a timer job to stop displaying the point under pixel and arcball
 	 * reference point visual hints.
 	 */
 	protected void unSetTimerFlag() {
@@ -3261,25 +3275,13 @@ public class Scene implements PConstants {
 								+ "See the Point Under Pixel example!");
 			else if (setArcballReferencePointFromPixel(new Point(parent.mouseX, parent.mouseY))) {
 				arpFlag = true;
-				Timer timer=new Timer();
-				TimerTask timerTask = new TimerTask() {
-					public void run() {
-						unSetTimerFlag();
-					}
-				};
-				timer.schedule(timerTask, 1000);
+				startSingleShotTimerJob(timerFlagJob, 1000);
 			}
 			break;
 		case RESET_ARP:
 			camera().setArcballReferencePoint(new PVector(0, 0, 0));
 			arpFlag = true;
-			Timer timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					unSetTimerFlag();
-				}
-			};
-			timer.schedule(timerTask, 1000);
+			startSingleShotTimerJob(timerFlagJob, 1000);
 			break;
 		case GLOBAL_HELP:
 			displayGlobalHelp();
@@ -3319,13 +3321,7 @@ public class Scene implements PConstants {
 				if (wP.found) {
 					pupVec = wP.point;
 					pupFlag = true;
-					Timer timer=new Timer();
-					TimerTask timerTask = new TimerTask() {
-						public void run() {
-							unSetTimerFlag();
-						}
-					};
-					timer.schedule(timerTask, 1000);
+					startSingleShotTimerJob(timerFlagJob, 1000);
 				}
 			}
 			break;
@@ -3703,13 +3699,7 @@ public class Scene implements PConstants {
 				if (wP.found) {
 					pupVec = wP.point;
 					pupFlag = true;
-					Timer timer=new Timer();
-					TimerTask timerTask = new TimerTask() {
-						public void run() {
-							unSetTimerFlag();
-						}
-					};
-					timer.schedule(timerTask, 1000);
+					startSingleShotTimerJob(timerFlagJob, 1000);
 				}
 			}
 			break;
@@ -3722,25 +3712,13 @@ public class Scene implements PConstants {
 								+ "See the Point Under Pixel example!");
 			else if (setArcballReferencePointFromPixel(new Point(parent.mouseX, parent.mouseY))) {
 				arpFlag = true;
-				Timer timer=new Timer();
-				TimerTask timerTask = new TimerTask() {
-					public void run() {
-						unSetTimerFlag();
-					}
-				};
-				timer.schedule(timerTask, 1000);
+				startSingleShotTimerJob(timerFlagJob, 1000);
 			}
 			break;
 		case RESET_ARP:
 			camera().setArcballReferencePoint(new PVector(0, 0, 0));
 			arpFlag = true;
-			Timer timer=new Timer();
-			TimerTask timerTask = new TimerTask() {
-				public void run() {
-					unSetTimerFlag();
-				}
-			};
-			timer.schedule(timerTask, 1000);
+			startSingleShotTimerJob(timerFlagJob, 1000);
 			break;
 		case CENTER_FRAME:
 			if (interactiveFrame() != null)
@@ -4110,7 +4088,89 @@ public class Scene implements PConstants {
 		return true;
 	}
 
-	// 12. Processing objects
+	// 12. Timers
+
+	/**
+	 * Starts the {@code job} so that it is executed every {@code period}
+	 * milliseconds, the first time at the next frame. An active job is
+	 * restarted.
+	 * <p>
+	 * The job is executed from {@link #pre()} in the processing animation
+	 * thread. When the frame rate is lower than the job rate, it is executed as
+	 * many times per frame as needed to keep the rate, unless it falls behind
+	 * by more than a second (e.g., because the sketch was paused), in which
+	 * case the lost executions are skipped.
+	 * 
+	 * @see #startSingleShotTimerJob(TimerJob, long)
+	 * @see #stopTimerJob(TimerJob)
+	 */
+	public void startTimerJob(TimerJob job, long period) {
+		job.start(timerMillis(), period, false);
+		addInTimerPool(job);
+	}
+
+	/**
+	 * Starts the {@code job} so that it is executed once, at the first frame
+	 * after {@code delay} milliseconds. An active job is restarted, i.e., its
+	 * execution is postponed.
+	 * 
+	 * @see #startTimerJob(TimerJob, long)
+	 * @see #stopTimerJob(TimerJob)
+	 */
+	public void startSingleShotTimerJob(TimerJob job, long delay) {
+		job.start(timerMillis(), delay, true);
+		addInTimerPool(job);
+	}
+
+	/**
+	 * Stops the {@code job}. It may safely be called from within a job, even
+	 * from the job itself.
+	 */
+	public void stopTimerJob(TimerJob job) {
+		job.stop();
+	}
+
+	/**
+	 * Internal method. Executes the timer jobs that are due, in the order they
+	 * were started, and drops the inactive ones from the {@link #timerPool}.
+	 * Called by {@link #pre()} and {@link #beginDraw()}.
+	 */
+	protected void handleTimers() {
+		long now = timerMillis();
+		// jobs started by other jobs are executed from the next frame on
+		int size = timerPool.size();
+		for (int i = 0; i < size; i++) {
+			TimerJob job = timerPool.get(i);
+			if (now - job.dueTime > 1000)
+				job.dueTime = now;
+			while (job.isActive() && job.dueTime <= now) {
+				if (job.isSingleShot())
+					job.stop();
+				else
+					job.dueTime += job.period();
+				job.execute();
+			}
+		}
+		for (int i = timerPool.size() - 1; i >= 0; i--)
+			if (!timerPool.get(i).isActive())
+				timerPool.remove(i).inPool = false;
+	}
+
+	private void addInTimerPool(TimerJob job) {
+		if (!job.inPool) {
+			timerPool.add(job);
+			job.inPool = true;
+		}
+	}
+
+	/**
+	 * Monotonic time base of the timer jobs, in milliseconds.
+	 */
+	static long timerMillis() {
+		return System.nanoTime() / 1000000L;
+	}
+
+	// 13. Processing objects
 
 	/**
 	 * Sets the processing camera projection matrix from {@link #camera()}. Calls
@@ -0,0 +1,102 @@
+/**
+ *                     ProScene (version 1.1.0)      
+ *    Copyright (c) 2010-2011 by National University of Colombia
+ *                 @author Jean Pierre Charalambos      
+ *           http://www.disi.unal.edu.co/grupos/remixlab/
+ *                           
+ * This java package provides classes to ease the creation of interactive 3D
+ * scenes in Processing.
+ * 
+ * This source file is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * A copy of the GNU General Public License is available on the World Wide Web
+ * at <http://www.gnu.org/copyleft/gpl.html>. You can also obtain it by
+ * writing to the Free Software Foundation, 51 Franklin Street, Suite 500
+ * Boston, MA 02110-1335, USA.
+ */
+
+package remixlab.proscene;
+
+/**
+ * A task that is executed by the {@link remixlab.proscene.Scene} it has been
+ * started at, either once after a delay or periodically.
+ * <p>
+ * All the timer jobs of a Scene are executed from
+ * {@link remixlab.proscene.Scene#pre()} (or
+ * {@link remixlab.proscene.Scene#beginDraw()} when the Scene is offscreen), in
+ * the order in which they were started, right before the frame is drawn. Hence
+ * they run in the processing animation thread and may safely modify the Frames
+ * that are drawn, which is not the case for the {@code java.util.Timer}
+ * threads the KeyFrameInterpolators and the InteractiveFrames used to have.
+ * <p>
+ * A periodic job keeps the rate of {@code java.util.Timer.scheduleAtFixedRate()}:
+ * when the frame rate is lower than the job rate, the job is executed several
+ * times within the same frame to catch up (see
+ * {@link remixlab.proscene.Scene#startTimerJob(TimerJob, long)}).
+ * <p>
+ * Implement {@link #execute()} with the code to be run.
+ */
+public abstract class TimerJob {
+	private long prd;
+	private boolean once;
+	private boolean active;
+	// next execution time, in milliseconds (see Scene.timerMillis())
+	long dueTime;
+	// true while the job is in the Scene timer pool
+	boolean inPool;
+
+	/**
+	 * The code to be executed by the Scene when the job is due.
+	 */
+	public abstract void execute();
+
+	/**
+	 * Returns {@code true} if the job has been started and neither has been
+	 * stopped nor, when it is single shot, executed yet.
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Returns {@code true} if the job is executed only once.
+	 */
+	public boolean isSingleShot() {
+		return once;
+	}
+
+	/**
+	 * Returns the period (or the delay, if the job {@link #isSingleShot()}) in
+	 * milliseconds.
+	 */
+	public long period() {
+		return prd;
+	}
+
+	/**
+	 * Internal use. Called by the Scene when the job is started.
+	 */
+	void start(long now, long period, boolean singleShot) {
+		// a period of 0 would never let the Scene leave the catch up loop
+		prd = Math.max(1, period);
+		once = singleShot;
+		dueTime = once ? now + period : now;
+		active = true;
+	}
+
+	/**
+	 * Internal use. Called by the Scene to stop the job and before a single
+	 * shot job is executed.
+	 */
+	void stop() {
+		active = false;
+	}
+}